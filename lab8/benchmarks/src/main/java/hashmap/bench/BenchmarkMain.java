@@ -0,0 +1,25 @@
+package hashmap.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Runs every map benchmark with the GC profiler attached, so each result
+ *  carries its allocation rate (gc.alloc.rate.norm is bytes per operation)
+ *  next to its time. ARGS, if given, is a regular expression selecting
+ *  benchmarks, e.g. "PrimitiveMapBenchmark".
+ *
+ *  @author tuysss
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "hashmap\\.bench\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,130 @@
+package hashmap.bench;
+
+import hashmap.IntIntMap61B;
+import hashmap.LongObjectMap61B;
+import hashmap.Map61B;
+import hashmap.MyHashMapLinearProbing;
+import hashmap.MyIntIntHashMap;
+import hashmap.MyLongObjectHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Counter and id-map workloads on the primitive maps and on their boxed
+ *  counterparts. Every key is already in the map when measuring starts, so
+ *  the tables never grow and whatever gc.alloc.rate.norm reports is boxing:
+ *  about 16 bytes per Integer or Long outside the small-value cache for the
+ *  boxed maps, and 0 for MyIntIntHashMap and MyLongObjectHashMap.
+ *
+ *  @author tuysss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveMapBenchmark {
+
+    /** Distinct keys; each invocation touches every one once. */
+    private static final int KEYS = 1 << 16;
+
+    private int[] intKeys;
+    private long[] longKeys;
+    private String[] names;
+
+    private IntIntMap61B intInt;
+    private Map61B<Integer, Integer> boxedIntInt;
+    private HashMap<Integer, Integer> javaIntInt;
+    private LongObjectMap61B<String> longObject;
+    private HashMap<Long, String> javaLongObject;
+
+    @Setup
+    public void setUp() {
+        Random r = new Random(61);
+        intKeys = new int[KEYS];
+        longKeys = new long[KEYS];
+        names = new String[KEYS];
+        intInt = new MyIntIntHashMap();
+        boxedIntInt = new MyHashMapLinearProbing<>();
+        javaIntInt = new HashMap<>();
+        longObject = new MyLongObjectHashMap<>();
+        javaLongObject = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            intKeys[i] = r.nextInt();
+            longKeys[i] = r.nextLong();
+            names[i] = "id" + i;
+            intInt.put(intKeys[i], 0);
+            boxedIntInt.put(intKeys[i], 0);
+            javaIntInt.put(intKeys[i], 0);
+            longObject.put(longKeys[i], names[i]);
+            javaLongObject.put(longKeys[i], names[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int countIntInt() {
+        int sum = 0;
+        for (int key : intKeys) {
+            sum += intInt.addTo(key, 1);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int countBoxedMap61B() {
+        int sum = 0;
+        for (int key : intKeys) {
+            int count = boxedIntInt.get(key) + 1;
+            boxedIntInt.put(key, count);
+            sum += count;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int countJavaHashMap() {
+        int sum = 0;
+        for (int key : intKeys) {
+            sum += javaIntInt.merge(key, 1, Integer::sum);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int putGetLongObject() {
+        int sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            longObject.put(longKeys[i], names[i]);
+            sum += longObject.get(longKeys[KEYS - 1 - i]).length();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int putGetJavaHashMap() {
+        int sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            javaLongObject.put(longKeys[i], names[i]);
+            sum += javaLongObject.get(longKeys[KEYS - 1 - i]).length();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,43 @@
+package hashmap;
+
+/**
+ * A map of bounded size: once its entries weigh more than its maximum, it
+ * evicts some of them to make room, the way a lookup cache should. Which
+ * ones is up to the implementation. Null keys and values are not allowed,
+ * as get() could not tell a null value from a miss.
+ */
+public interface Cache61B<K, V> {
+    /** Removes all of the entries from this cache. Stats are kept. */
+    void clear();
+
+    /**
+     * Returns the value cached for the specified key, or null if there is
+     * none, and counts a hit or a miss.
+     */
+    V get(K key);
+
+    /** Returns the number of entries in this cache. */
+    int size();
+
+    /** Returns the total weight of the entries in this cache. */
+    long weightedSize();
+
+    /** Returns the weight past which this cache evicts entries. */
+    long maximumWeight();
+
+    /**
+     * Caches the specified value for the specified key, replacing any old
+     * value, then evicts entries until the cache is back within its
+     * maximum weight. That may include the new entry itself.
+     */
+    void put(K key, V value);
+
+    /**
+     * Removes the entry for the specified key from this cache if present.
+     * Returns the value it had, or null. This does not count as an eviction.
+     */
+    V remove(K key);
+
+    /** Returns the hit, miss and eviction counts so far. */
+    CacheStats stats();
+}
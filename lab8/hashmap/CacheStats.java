@@ -0,0 +1,56 @@
+package hashmap;
+
+/**
+ * The counts a Cache61B keeps about its use, as of one moment.
+ * @author tuysss
+ */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long evictedWeight;
+
+    public CacheStats(long hits, long misses, long evictions, long evictedWeight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.evictedWeight = evictedWeight;
+    }
+
+    /** Returns the number of get()s that found their key. */
+    public long hitCount() {
+        return hits;
+    }
+
+    /** Returns the number of get()s that did not. */
+    public long missCount() {
+        return misses;
+    }
+
+    /** Returns the number of get()s. */
+    public long requestCount() {
+        return hits + misses;
+    }
+
+    /** Returns the fraction of get()s that hit, or 1 if there were none. */
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /** Returns the number of entries evicted, rejected new ones included. */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /** Returns the total weight of the entries evicted. */
+    public long evictionWeight() {
+        return evictedWeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (hit rate %.4f), %d evictions (weight %d)",
+                hits, misses, hitRate(), evictions, evictedWeight);
+    }
+}
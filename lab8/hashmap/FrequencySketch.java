@@ -0,0 +1,91 @@
+package hashmap;
+
+/**
+ * A count-min sketch: an estimate of how often each key was seen lately,
+ * in half a byte per counter rather than a map entry per key.
+ *
+ * There are four rows of 4-bit counters, sixteen to a long. Every key bumps
+ * one counter in each row, picked by a hash of its own per row, and its
+ * estimate is the smallest of its four counters, which is too high only if
+ * other keys share all four; rows four times as wide as the number of keys
+ * that matter make that rare, for 8 bytes per key. Counters stop at 15.
+ * Once the number of increments reaches ten times that number of keys,
+ * every counter is halved, so that keys that were popular long ago do not
+ * stay so forever.
+ * @author tuysss
+ */
+class FrequencySketch {
+
+    private static final int ROWS = 4;
+    private static final int MAX_WIDTH = 1 << 22;
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    /** Keeps the low three bits of every counter after a shift right. */
+    private static final long HALVE_MASK = 0x7777777777777777L;
+
+    private final long[][] rows;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /** Creates a sketch for EXPECTEDKEYS keys whose counts matter at any one
+     *  time, such as the entries of a cache. */
+    FrequencySketch(long expectedKeys) {
+        int width = 64;
+        while (width < 4 * expectedKeys && width < MAX_WIDTH) {
+            width <<= 1;
+        }
+        rows = new long[ROWS][width / 16];
+        mask = width - 1;
+        sampleSize = 10 * (width / 4);
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Returns the counter of hash H in row R. */
+    private int counterOf(int h, int r) {
+        long x = (h + SEEDS[r]) * SEEDS[r];
+        return (int) (x ^ (x >>> 32)) & mask;
+    }
+
+    /** Counts one more occurrence of KEY. */
+    void increment(Object key) {
+        int h = spread(key);
+        boolean added = false;
+        for (int r = 0; r < ROWS; r++) {
+            int j = counterOf(h, r);
+            int shift = (j & 15) << 2;
+            if (((rows[r][j >>> 4] >>> shift) & 0xF) < 15) {
+                rows[r][j >>> 4] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    /** Returns the estimated number of occurrences of KEY, at most 15. */
+    int frequency(Object key) {
+        int h = spread(key);
+        int min = 15;
+        for (int r = 0; r < ROWS; r++) {
+            int j = counterOf(h, r);
+            min = Math.min(min, (int) (rows[r][j >>> 4] >>> ((j & 15) << 2)) & 0xF);
+        }
+        return min;
+    }
+
+    private void halve() {
+        for (long[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (row[i] >>> 1) & HALVE_MASK;
+            }
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,52 @@
+package hashmap;
+
+/**
+ * A Map61B from int keys to int values, minus the boxing: implementations
+ * store both in primitive arrays, so no operation allocates except when the
+ * table grows. Every int is a valid key, 0 included. For lack of null, a
+ * missing key reads as 0, or as the default passed to getOrDefault.
+ */
+public interface IntIntMap61B {
+    /** Removes all of the mappings from this map. */
+    void clear();
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    boolean containsKey(int key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or 0 if this
+     * map contains no mapping for the key.
+     */
+    int get(int key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * defaultValue if this map contains no mapping for the key.
+     */
+    int getOrDefault(int key, int defaultValue);
+
+    /** Returns the number of key-value mappings in this map. */
+    int size();
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    void put(int key, int value);
+
+    /**
+     * Adds delta to the value of the specified key, taking a missing one as
+     * 0, and returns the new value. Counting is the common use.
+     */
+    int addTo(int key, int delta);
+
+    /** Returns the keys contained in this map, in no particular order. */
+    int[] keys();
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     * Returns the value it had, or 0 if there was none.
+     */
+    int remove(int key);
+}
@@ -0,0 +1,39 @@
+package hashmap;
+
+/**
+ * A Map61B from long keys to objects, minus the boxing of the keys:
+ * implementations store them in a long array, so only growing the table
+ * allocates. Every long is a valid key, 0 included.
+ */
+public interface LongObjectMap61B<V> {
+    /** Removes all of the mappings from this map. */
+    void clear();
+
+    /** Returns true if this map contains a mapping for the specified key. */
+    boolean containsKey(long key);
+
+    /**
+     * Returns the value to which the specified key is mapped, or null if this
+     * map contains no mapping for the key.
+     */
+    V get(long key);
+
+    /** Returns the number of key-value mappings in this map. */
+    int size();
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key,
+     * the old value is replaced.
+     */
+    void put(long key, V value);
+
+    /** Returns the keys contained in this map, in no particular order. */
+    long[] keys();
+
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     * Returns the value it had, or null.
+     */
+    V remove(long key);
+}
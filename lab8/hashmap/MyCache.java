@@ -0,0 +1,307 @@
+package hashmap;
+
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A Cache61B over any Map61B, which maps each key to a node holding its
+ * value. Nodes are also linked into doubly-linked queues, most recently
+ * used first, so that finding, moving and evicting an entry all take
+ * constant time on top of the map's own.
+ *
+ * Under Policy.LRU there is one queue, and the least recently used entry
+ * is the one evicted.
+ *
+ * Under Policy.W_TINY_LFU (as in Caffeine), new entries go into a small LRU
+ * window, 1% of the maximum weight. The rest is the main space, split in
+ * probation and protected queues, both LRU; an entry in probation that is
+ * used again moves to protected, which holds at most 80% of the main space,
+ * and entries pushed out of protected go back to probation. An entry pushed
+ * out of the window only gets into the main space if the FrequencySketch
+ * has seen its key more often than that of the entry it would replace, the
+ * last one in probation; otherwise it is the one evicted. So a burst of keys
+ * used once, such as a scan, cannot flush out keys used over and over,
+ * while the window still gives a new key time to build up its count.
+ * Unlike Caffeine, the window does not adapt its size to the workload.
+ *
+ * An entry weighs 1 unless a weigher says otherwise. Null keys and values
+ * are not allowed. Not thread-safe.
+ * @author tuysss
+ */
+public class MyCache<K, V> implements Cache61B<K, V> {
+
+    /** Which entries a MyCache evicts. */
+    public enum Policy {
+        /** The least recently used. */
+        LRU,
+        /** The least recently used, unless used less often than the entry
+         *  that would replace it. */
+        W_TINY_LFU
+    }
+
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+
+    /** A cached entry and its place in a queue. Opaque outside MyCache. */
+    public static final class Node<K, V> {
+        private final K key;
+        private V value;
+        private int weight;
+        /** The queue this node is in, or null. */
+        private Queue<K, V> queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /** A doubly-linked list of nodes around a sentinel: head.next is the most
+     *  recently used, head.prev the least. */
+    private static final class Queue<K, V> {
+        private final Node<K, V> head = new Node<>(null, null, 0);
+        private long weight;
+
+        Queue() {
+            clear();
+        }
+
+        void addFirst(Node<K, V> node) {
+            node.queue = this;
+            node.prev = head;
+            node.next = head.next;
+            head.next.prev = node;
+            head.next = node;
+            weight += node.weight;
+        }
+
+        void remove(Node<K, V> node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            weight -= node.weight;
+        }
+
+        /** Returns the least recently used node, or null. */
+        Node<K, V> last() {
+            return head.prev == head ? null : head.prev;
+        }
+
+        void clear() {
+            head.prev = head;
+            head.next = head;
+            weight = 0;
+        }
+    }
+
+    /* Instance Variables */
+    private final Map61B<K, Node<K, V>> index;
+    private final long maximumWeight;
+    private final ToIntBiFunction<? super K, ? super V> weigher;
+    /** Null under LRU. */
+    private final FrequencySketch sketch;
+    private final long windowMax;
+    private final long mainMax;
+    private final long protectedMax;
+    private final Queue<K, V> window = new Queue<>();
+    private final Queue<K, V> probation = new Queue<>();
+    private final Queue<K, V> protectedQueue = new Queue<>();
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedWeight;
+
+    /** Constructors */
+    public MyCache(long maximumSize) {
+        this(new MyHashMap<>(), maximumSize, Policy.W_TINY_LFU);
+    }
+
+    public MyCache(Map61B<K, Node<K, V>> index, long maximumSize, Policy policy) {
+        this(index, maximumSize, policy, (key, value) -> 1);
+    }
+
+    /**
+     * Constructor that keeps its entries in INDEX, which must be empty, and
+     * evicts by POLICY once their total weight exceeds maximumWeight.
+     *
+     * @param index the map to look keys up in
+     * @param maximumWeight the most the entries may weigh together
+     * @param policy which entries to evict
+     * @param weigher the weight of each entry, at least 0
+     */
+    public MyCache(Map61B<K, Node<K, V>> index, long maximumWeight, Policy policy,
+                   ToIntBiFunction<? super K, ? super V> weigher) {
+        if (index.size() != 0) {
+            throw new IllegalArgumentException("index must be empty");
+        }
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("maximumWeight must be at least 0");
+        }
+        this.index = index;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        if (policy == Policy.LRU) {
+            sketch = null;
+            windowMax = maximumWeight;
+        } else {
+            sketch = new FrequencySketch(maximumWeight);
+            windowMax = Math.min(maximumWeight, Math.max(1, (long) (maximumWeight * WINDOW_SHARE)));
+        }
+        mainMax = maximumWeight - windowMax;
+        protectedMax = (long) (mainMax * PROTECTED_SHARE);
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node<K, V> node = index.get(key);
+        if (node == null) {
+            misses += 1;
+            return null;
+        }
+        hits += 1;
+        touch(node);
+        return node.value;
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        return window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("null key or value");
+        }
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight");
+        }
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node<K, V> node = index.get(key);
+        if (node != null) {
+            node.value = value;
+            node.queue.weight += weight - node.weight;
+            node.weight = weight;
+            touch(node);
+        } else {
+            node = new Node<>(key, value, weight);
+            index.put(key, node);
+            window.addFirst(node);
+        }
+        evict();
+    }
+
+    /** Moves NODE, just used, to the front of its queue, or from probation
+     *  to protected. */
+    private void touch(Node<K, V> node) {
+        Queue<K, V> queue = node.queue;
+        queue.remove(node);
+        if (queue == probation) {
+            protectedQueue.addFirst(node);
+            while (protectedQueue.weight > protectedMax) {
+                Node<K, V> demoted = protectedQueue.last();
+                protectedQueue.remove(demoted);
+                probation.addFirst(demoted);
+            }
+        } else {
+            queue.addFirst(node);
+        }
+    }
+
+    /** Brings every queue back within its share of the maximum weight. */
+    private void evict() {
+        while (window.weight > windowMax) {
+            Node<K, V> candidate = window.last();
+            window.remove(candidate);
+            admit(candidate);
+        }
+        // An entry of the main space may have been put again, heavier.
+        while (probation.weight + protectedQueue.weight > mainMax) {
+            Node<K, V> victim = victim();
+            victim.queue.remove(victim);
+            discard(victim);
+        }
+    }
+
+    /** Moves CANDIDATE, just pushed out of the window, into probation if it
+     *  is used more often than each entry it has to push out of the main
+     *  space, and evicts it otherwise. */
+    private void admit(Node<K, V> candidate) {
+        if (candidate.weight > mainMax) {
+            discard(candidate);
+            return;
+        }
+        while (probation.weight + protectedQueue.weight + candidate.weight > mainMax) {
+            Node<K, V> victim = victim();
+            if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                discard(candidate);
+                return;
+            }
+            victim.queue.remove(victim);
+            discard(victim);
+        }
+        probation.addFirst(candidate);
+    }
+
+    /** Returns the entry of the main space to evict first. */
+    private Node<K, V> victim() {
+        Node<K, V> victim = probation.last();
+        return victim != null ? victim : protectedQueue.last();
+    }
+
+    /** Drops NODE, already out of its queue, from the index. */
+    private void discard(Node<K, V> node) {
+        index.remove(node.key);
+        evictions += 1;
+        evictedWeight += node.weight;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node<K, V> node = index.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.queue.remove(node);
+        return node.value;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, evictedWeight);
+    }
+}
@@ -0,0 +1,389 @@
+package hashmap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe hash table with lock striping.
+ *
+ * The keys are split over a fixed number of stripes by the high bits of
+ * their hash. Each stripe is a small chained hash table of its own, guarded
+ * by its own lock, so writers only contend when they hit the same stripe,
+ * and each stripe resizes on its own: a table of tens of millions of items
+ * is rehashed in many small steps, by whichever threads happen to write to
+ * each stripe, while the others go on.
+ *
+ * Reads take no lock. A stripe's table is swapped in whole when it resizes,
+ * and chain links and values are volatile, so get() sees either the state
+ * before or after any write. size() sums the stripes one by one, and
+ * iterator() and keySet() walk them one by one; all three are weakly
+ * consistent: they reflect every write that finished before they started,
+ * and may or may not reflect writes made while they run. The iterator never
+ * throws ConcurrentModificationException.
+ *
+ * putIfAbsent() and compute() run atomically with respect to other writes.
+ *
+ * Assumes null keys will never be inserted, and does not resize down upon
+ * remove(). Null values are not allowed either, as get() could not tell them
+ * from a missing key.
+ * @author tuysss
+ */
+public class MyConcurrentHashMap<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.75;
+    private static final int DEFAULT_STRIPES = 64;
+
+    /** A key/value pair. The key and hash never change, so a reader that
+     *  reaches a node can trust them without a lock. */
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** One stripe: a chained hash table and the lock its writers hold. */
+    private static final class Stripe<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count;
+
+        Stripe(int tableSize) {
+            table = new AtomicReferenceArray<>(tableSize);
+        }
+    }
+
+    /* Instance Variables */
+    private final Stripe<K, V>[] stripes;
+    /** The hash bits above this pick the stripe. */
+    private final int stripeShift;
+    private final double maxLoad;
+
+    /** Constructors */
+    public MyConcurrentHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD, DEFAULT_STRIPES);
+    }
+
+    public MyConcurrentHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD, DEFAULT_STRIPES);
+    }
+
+    public MyConcurrentHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor that creates backing arrays for initialSize items in all.
+     * The load factor (# items / # buckets) of every stripe should always be
+     * <= maxLoad.
+     *
+     * @param initialSize initial size of the backing arrays, summed over the
+     *                    stripes
+     * @param maxLoad maximum load factor
+     * @param concurrency expected number of concurrent writers; rounded up to
+     *                    a power of two, it is the number of stripes
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MyConcurrentHashMap(int initialSize, double maxLoad, int concurrency) {
+        if (!(maxLoad > 0) || concurrency <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxLoad = maxLoad;
+        int n = powerOfTwo(concurrency);
+        stripeShift = 32 - Integer.numberOfTrailingZeros(n);
+        stripes = (Stripe<K, V>[]) new Stripe[n];
+        int perStripe = powerOfTwo(Math.max(2, initialSize / n));
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe<>(perStripe);
+        }
+    }
+
+    /** Returns the smallest power of two >= N. */
+    private static int powerOfTwo(int n) {
+        int p = Integer.highestOneBit(n);
+        return p == n ? n : p << 1;
+    }
+
+    /** Scrambles KEY's hash code so that the high bits, which pick the
+     *  stripe, and the low bits, which pick the bucket, both depend on all
+     *  of it. */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Stripe<K, V> stripeFor(int h) {
+        return stripeShift == 32 ? stripes[0] : stripes[h >>> stripeShift];
+    }
+
+    /** Returns the node of KEY, with hash H, in TABLE, or null. */
+    private static <K, V> Node<K, V> find(AtomicReferenceArray<Node<K, V>> table,
+                                          Object key, int h) {
+        Node<K, V> p = table.get(h & (table.length() - 1));
+        while (p != null && !(p.hash == h && key.equals(p.key))) {
+            p = p.next;
+        }
+        return p;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe<K, V> s : stripes) {
+            s.lock.lock();
+            try {
+                s.table = new AtomicReferenceArray<>(s.table.length());
+                s.count = 0;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int h = hash(key);
+        Node<K, V> p = find(stripeFor(h).table, key, h);
+        return p == null ? null : p.value;
+    }
+
+    @Override
+    public int size() {
+        long total = 0;
+        for (Stripe<K, V> s : stripes) {
+            total += s.count;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        write(key, value, false);
+    }
+
+    /**
+     * Associates value with key unless key already has a value. Returns
+     * that value, or null if value was put in.
+     */
+    public V putIfAbsent(K key, V value) {
+        return write(key, value, true);
+    }
+
+    /** Puts KEY -> VALUE, unless ONLYIFABSENT and KEY is present. Returns
+     *  the old value. */
+    private V write(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("null key or value");
+        }
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> p = find(s.table, key, h);
+            if (p != null) {
+                V old = p.value;
+                if (!onlyIfAbsent) {
+                    p.value = value;
+                }
+                return old;
+            }
+            insert(s, key, h, value);
+            return null;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the value of key, or null if it has none, by
+     * remapping.apply(key, value) and returns it. A null result removes the
+     * key. Runs atomically: no other write to the map can slip in between
+     * reading the old value and storing the new one, so remapping should be
+     * short and must not write to this map.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> p = find(s.table, key, h);
+            V value = remapping.apply(key, p == null ? null : p.value);
+            if (value == null) {
+                if (p != null) {
+                    unlink(s, p);
+                }
+            } else if (p != null) {
+                p.value = value;
+            } else {
+                insert(s, key, h, value);
+            }
+            return value;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Adds KEY -> VALUE, known to be missing, to S, whose lock is held. */
+    private void insert(Stripe<K, V> s, K key, int h, V value) {
+        AtomicReferenceArray<Node<K, V>> table = s.table;
+        if (s.count + 1 > table.length() * maxLoad) {
+            table = resize(s);
+        }
+        int i = h & (table.length() - 1);
+        table.set(i, new Node<>(key, h, value, table.get(i)));
+        s.count += 1;
+    }
+
+    /** Doubles the table of S, whose lock is held. Readers keep using the
+     *  old table until the new one is complete, so the nodes are copied,
+     *  not relinked. */
+    private AtomicReferenceArray<Node<K, V>> resize(Stripe<K, V> s) {
+        AtomicReferenceArray<Node<K, V>> old = s.table;
+        AtomicReferenceArray<Node<K, V>> table =
+            new AtomicReferenceArray<>(old.length() * 2);
+        int mask = table.length() - 1;
+        for (int j = 0; j < old.length(); j++) {
+            for (Node<K, V> p = old.get(j); p != null; p = p.next) {
+                int i = p.hash & mask;
+                table.set(i, new Node<>(p.key, p.hash, p.value, table.get(i)));
+            }
+        }
+        s.table = table;
+        return table;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        for (K key : this) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(K key) {
+        return remove(key, null, false);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        return remove(key, value, true);
+    }
+
+    /** Removes KEY, if MATCH only when it maps to VALUE. Returns the value
+     *  removed, or null. */
+    private V remove(K key, V value, boolean match) {
+        if (key == null) {
+            return null;
+        }
+        int h = hash(key);
+        Stripe<K, V> s = stripeFor(h);
+        s.lock.lock();
+        try {
+            Node<K, V> p = find(s.table, key, h);
+            if (p == null || (match && !p.value.equals(value))) {
+                return null;
+            }
+            unlink(s, p);
+            return p.value;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Takes node P out of S, whose lock is held. A reader standing on P
+     *  still finds the rest of the chain through P.next. */
+    private void unlink(Stripe<K, V> s, Node<K, V> p) {
+        AtomicReferenceArray<Node<K, V>> table = s.table;
+        int i = p.hash & (table.length() - 1);
+        Node<K, V> first = table.get(i);
+        if (first == p) {
+            table.set(i, p.next);
+        } else {
+            Node<K, V> prev = first;
+            while (prev.next != p) {
+                prev = prev.next;
+            }
+            prev.next = p.next;
+        }
+        s.count -= 1;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Walks the stripes in order, and each stripe's table as it was when
+     *  the walk reached it. */
+    private class KeyIterator implements Iterator<K> {
+        private int stripe = -1;
+        private AtomicReferenceArray<Node<K, V>> table;
+        private int bucket;
+        private Node<K, V> next;
+
+        KeyIterator() {
+            advance();
+        }
+
+        /** Moves next to the node after it, or to the first node of the
+         *  next nonempty bucket. */
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null) {
+                if (table == null || bucket >= table.length()) {
+                    stripe += 1;
+                    if (stripe >= stripes.length) {
+                        return;
+                    }
+                    table = stripes[stripe].table;
+                    bucket = 0;
+                    continue;
+                }
+                next = table.get(bucket);
+                bucket += 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            advance();
+            return key;
+        }
+    }
+}
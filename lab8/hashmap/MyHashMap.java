@@ -1,13 +1,30 @@
 package hashmap;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  *  A hash table-backed Map implementation. Provides amortized constant time
  *  access to elements via get(), remove(), and put() in the best case.
  *
+ *  By default the table grows all at once: the put() that pushes the load
+ *  factor past maxLoad rehashes every item into a table twice the size,
+ *  a pause that grows with the map. In incremental mode the old and new
+ *  tables are kept side by side instead, and every operation moves a few
+ *  buckets over (as Redis does with its dict), so no single put() does more
+ *  than a bounded amount of rehashing. Meanwhile, a key lives in the old
+ *  table if its bucket there has not moved yet and in the new one otherwise,
+ *  and lookups check the one that applies.
+ *
  *  Assumes null keys will never be inserted, and does not resize down upon remove().
- *  @author YOUR NAME HERE
+ *  @author tuysss
  */
 public class MyHashMap<K, V> implements Map61B<K, V> {
 
@@ -25,14 +42,35 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
         }
     }
 
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.75;
+    /** Nonempty buckets moved per operation in incremental mode. */
+    private static final int MIGRATE_BUCKETS = 2;
+    /** Empty buckets skipped per bucket moved, at most, so that a sparse
+     *  old table does not make one operation slow either. */
+    private static final int MIGRATE_EMPTY_VISITS = 10;
+
     /* Instance Variables */
     private Collection<Node>[] buckets;
-    // You should probably define some more!
+    private int size;
+    private final double maxLoad;
+    private final boolean incremental;
+    /** In incremental mode, the table being moved out of, or null. */
+    private Collection<Node>[] oldBuckets;
+    /** The buckets of oldBuckets before this one have been moved. */
+    private int migrated;
+    /** Bumped when keys are added or removed, to fail fast in iterators.
+     *  Moving buckets between tables does not count. */
+    private int modCount;
 
     /** Constructors */
-    public MyHashMap() { }
+    public MyHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD);
+    }
 
-    public MyHashMap(int initialSize) { }
+    public MyHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD);
+    }
 
     /**
      * MyHashMap constructor that creates a backing array of initialSize.
@@ -41,13 +79,33 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * @param initialSize initial size of backing array
      * @param maxLoad maximum load factor
      */
-    public MyHashMap(int initialSize, double maxLoad) { }
+    public MyHashMap(int initialSize, double maxLoad) {
+        this(initialSize, maxLoad, false);
+    }
+
+    /**
+     * MyHashMap constructor that creates a backing array of initialSize
+     * and, if incremental, spreads the rehashing of each resize over the
+     * operations that follow it.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     * @param incremental whether to resize incrementally
+     */
+    public MyHashMap(int initialSize, double maxLoad, boolean incremental) {
+        if (!(maxLoad > 0)) {
+            throw new IllegalArgumentException("maxLoad must be positive");
+        }
+        this.maxLoad = maxLoad;
+        this.incremental = incremental;
+        buckets = createTable(Math.max(initialSize, 1));
+    }
 
     /**
      * Returns a new node to be placed in a hash table bucket
      */
     private Node createNode(K key, V value) {
-        return null;
+        return new Node(key, value);
     }
 
     /**
@@ -69,7 +127,7 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * OWN BUCKET DATA STRUCTURES WITH THE NEW OPERATOR!
      */
     protected Collection<Node> createBucket() {
-        return null;
+        return new ArrayList<>();
     }
 
     /**
@@ -79,13 +137,302 @@ public class MyHashMap<K, V> implements Map61B<K, V> {
      * BE SURE TO CALL THIS FACTORY METHOD WHEN CREATING A TABLE SO
      * THAT ALL BUCKET TYPES ARE OF JAVA.UTIL.COLLECTION
      *
+     * The buckets themselves are made by createBucket when first needed,
+     * so that creating a table, and so starting an incremental resize,
+     * costs little more than allocating the array.
+     *
      * @param tableSize the size of the table to create
      */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private Collection<Node>[] createTable(int tableSize) {
+        return new Collection[tableSize];
+    }
+
+    /**
+     * Returns the hash code that picks KEY's bucket: key.hashCode(), unless
+     * overridden to scramble it further.
+     */
+    protected int hash(K key) {
+        return key.hashCode();
+    }
+
+    /** Returns the index of KEY's bucket in TABLE. */
+    private int index(K key, Collection<Node>[] table) {
+        return Math.floorMod(hash(key), table.length);
+    }
+
+    /** Returns the bucket KEY belongs in right now. If it does not exist
+     *  yet, returns null, or with CREATE, a new one. */
+    private Collection<Node> bucketOf(K key, boolean create) {
+        Collection<Node>[] table = buckets;
+        int i = -1;
+        if (oldBuckets != null) {
+            i = index(key, oldBuckets);
+            table = i >= migrated ? oldBuckets : buckets;
+        }
+        if (table == buckets) {
+            i = index(key, buckets);
+        }
+        if (table[i] == null && create) {
+            table[i] = createBucket();
+        }
+        return table[i];
+    }
+
+    /** Returns the node of KEY in BUCKET, which may be null, or null. */
+    private Node find(Collection<Node> bucket, K key) {
+        return bucket == null ? null : findInBucket(bucket, key);
+    }
+
+    /**
+     * Returns the node of KEY in BUCKET, or null. Looks at every node in
+     * turn; override this along with createBucket if your buckets have a
+     * faster way.
+     */
+    protected Node findInBucket(Collection<Node> bucket, K key) {
+        for (Node node : bucket) {
+            if (key.equals(node.key)) {
+                return node;
+            }
+        }
         return null;
     }
 
-    // TODO: Implement the methods of the Map61B Interface below
-    // Your code won't compile until you do so!
+    @Override
+    public void clear() {
+        buckets = createTable(DEFAULT_SIZE);
+        oldBuckets = null;
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && getNode(key) != null;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        Node node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    private Node getNode(K key) {
+        migrate();
+        return find(bucketOf(key, false), key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        migrate();
+        Collection<Node> bucket = bucketOf(key, true);
+        Node node = find(bucket, key);
+        if (node != null) {
+            node.value = value;
+            return;
+        }
+        bucket.add(createNode(key, value));
+        size += 1;
+        modCount += 1;
+        if ((double) size / buckets.length > maxLoad) {
+            resize(buckets.length * 2);
+        }
+    }
+
+    /** Moves to a table of TABLESIZE buckets, all at once or, in
+     *  incremental mode, starting a migration. */
+    private void resize(int tableSize) {
+        if (oldBuckets != null) {
+            // Outgrew the new table before the last move was done.
+            finishMigration();
+        }
+        oldBuckets = buckets;
+        migrated = 0;
+        buckets = createTable(tableSize);
+        if (!incremental) {
+            finishMigration();
+        }
+    }
+
+    /** Does this operation's share of an incremental migration. */
+    private void migrate() {
+        if (oldBuckets == null) {
+            return;
+        }
+        int moved = 0;
+        int visits = MIGRATE_BUCKETS * MIGRATE_EMPTY_VISITS;
+        while (moved < MIGRATE_BUCKETS && visits > 0 && migrated < oldBuckets.length) {
+            if (oldBuckets[migrated] != null && !oldBuckets[migrated].isEmpty()) {
+                moveBucket(migrated);
+                moved += 1;
+            }
+            migrated += 1;
+            visits -= 1;
+        }
+        if (migrated == oldBuckets.length) {
+            oldBuckets = null;
+        }
+    }
+
+    private void finishMigration() {
+        for (; migrated < oldBuckets.length; migrated++) {
+            moveBucket(migrated);
+        }
+        oldBuckets = null;
+    }
+
+    /** Moves the nodes of old bucket I to the new table. */
+    private void moveBucket(int i) {
+        if (oldBuckets[i] == null) {
+            return;
+        }
+        for (Node node : oldBuckets[i]) {
+            int j = index(node.key, buckets);
+            if (buckets[j] == null) {
+                buckets[j] = createBucket();
+            }
+            buckets[j].add(node);
+        }
+        oldBuckets[i] = null;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        if (oldBuckets != null) {
+            addKeys(oldBuckets, migrated, result);
+        }
+        addKeys(buckets, 0, result);
+        return result;
+    }
 
+    /** Adds the keys in the buckets of TABLE from FROM on to RESULT. */
+    private void addKeys(Collection<Node>[] table, int from, Set<K> result) {
+        for (int i = from; i < table.length; i++) {
+            if (table[i] == null) {
+                continue;
+            }
+            for (Node node : table[i]) {
+                result.add(node.key);
+            }
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        migrate();
+        Collection<Node> bucket = bucketOf(key, false);
+        Node node = find(bucket, key);
+        if (node == null) {
+            return null;
+        }
+        bucket.remove(node);
+        size -= 1;
+        modCount += 1;
+        return node.value;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        migrate();
+        Collection<Node> bucket = bucketOf(key, false);
+        Node node = find(bucket, key);
+        if (node == null
+                || !(value == null ? node.value == null : value.equals(node.value))) {
+            return null;
+        }
+        bucket.remove(node);
+        size -= 1;
+        modCount += 1;
+        return node.value;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /**
+     * Iterates over the unmoved buckets of the old table, then over the new
+     * table. Lookups meanwhile may move buckets over: a bucket already seen
+     * in the old table is skipped when it turns up in the new one, and one
+     * moved before its turn is seen there instead. While a migration is on,
+     * each new bucket is copied before it is walked, since a move may add
+     * to it.
+     */
+    private class KeyIterator implements Iterator<K> {
+        private final Collection<Node>[] old = oldBuckets;
+        private final Collection<Node>[] table = buckets;
+        private final int expected = modCount;
+        /** Old buckets whose keys were returned from the old table. */
+        private final BitSet seen = new BitSet();
+        private boolean inOld = old != null;
+        /** The next bucket to visit, in old while inOld, else in table. */
+        private int i = inOld ? migrated : 0;
+        private Iterator<Node> nodes = Collections.emptyIterator();
+        private Node next = advance();
+
+        /** Returns the next node to return, or null at the end. */
+        private Node advance() {
+            while (true) {
+                while (nodes.hasNext()) {
+                    Node node = nodes.next();
+                    if (inOld || old == null || !seen.get(index(node.key, old))) {
+                        return node;
+                    }
+                }
+                if (inOld && i == old.length) {
+                    inOld = false;
+                    i = 0;
+                }
+                if (inOld) {
+                    if (old[i] != null) {
+                        seen.set(i);
+                        nodes = old[i].iterator();
+                    }
+                } else if (i == table.length) {
+                    return null;
+                } else if (table[i] != null) {
+                    nodes = old == null ? table[i].iterator()
+                            : new ArrayList<>(table[i]).iterator();
+                }
+                i += 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public K next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = next.key;
+            next = advance();
+            return key;
+        }
+    }
 }
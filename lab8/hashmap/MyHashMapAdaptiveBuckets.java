@@ -0,0 +1,175 @@
+package hashmap;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Hash Table with buckets that turn into search trees when they get long.
+ *
+ * A bucket starts out as an array list. Once it holds more than
+ * TREEIFY_THRESHOLD nodes whose keys have the same Comparable class, those
+ * nodes move to a red-black tree (a TreeMap) ordered by the keys' compareTo,
+ * and lookups of keys of that class take O(log n) comparisons instead of
+ * O(n). That only matters when many keys share a bucket: with poor or
+ * attacker-chosen hashCode()s, or colliding ones like "Aa" and "BB". Keys of
+ * other classes, which compareTo cannot order against the tree's, stay in
+ * a list beside it, so one odd key does not undo the tree. The tree turns
+ * back into a list once it shrinks to UNTREEIFY_THRESHOLD nodes. This is
+ * close to the scheme java.util.HashMap uses, which orders keys of mixed
+ * classes in one tree by class name and identity hash instead.
+ *
+ * The keys' compareTo must be consistent with equals.
+ * @author tuysss
+ */
+public class MyHashMapAdaptiveBuckets<K, V> extends MyHashMap<K, V> {
+
+    /** A list bucket with more nodes than this becomes a tree. */
+    static final int TREEIFY_THRESHOLD = 8;
+    /** A tree bucket with this many nodes or fewer becomes a list. The gap
+     *  keeps a bucket from flipping back and forth on every add and remove. */
+    static final int UNTREEIFY_THRESHOLD = 6;
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapAdaptiveBuckets() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapAdaptiveBuckets(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected Collection<Node> createBucket() {
+        return new AdaptiveBucket();
+    }
+
+    @Override
+    protected Node findInBucket(Collection<Node> bucket, K key) {
+        return ((AdaptiveBucket) bucket).find(key);
+    }
+
+    /** A bucket that is a list of nodes, or a tree of the nodes whose keys
+     *  share one class plus a list of the rest. */
+    private class AdaptiveBucket extends AbstractCollection<Node> {
+        /** The nodes not in the tree; all of them while there is none. */
+        private List<Node> list = new ArrayList<>();
+        /** The nodes whose keys are of class type, by key; or null. */
+        private TreeMap<K, Node> tree;
+        /** The class of the keys in the tree; null while there is none. */
+        private Class<?> type;
+
+        Node find(K key) {
+            if (tree != null && key.getClass() == type) {
+                return tree.get(key);
+            }
+            for (Node node : list) {
+                if (key.equals(node.key)) {
+                    return node;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean add(Node node) {
+            if (tree != null && node.key.getClass() == type) {
+                tree.put(node.key, node);
+                return true;
+            }
+            list.add(node);
+            if (tree == null && list.size() > TREEIFY_THRESHOLD) {
+                treeify(node.key.getClass());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            @SuppressWarnings("unchecked")
+            Node node = (Node) o;
+            if (tree == null || node.key.getClass() != type) {
+                return list.remove(node);
+            }
+            if (!tree.remove(node.key, node)) {
+                return false;
+            }
+            if (tree.size() <= UNTREEIFY_THRESHOLD) {
+                untreeify();
+            }
+            return true;
+        }
+
+        /** Moves the nodes whose keys are of class CLS into a tree, if CLS
+         *  is Comparable and more than TREEIFY_THRESHOLD of them are here.
+         *  Keys of other classes stay in the list. */
+        private void treeify(Class<?> cls) {
+            if (!Comparable.class.isAssignableFrom(cls)) {
+                return;
+            }
+            int count = 0;
+            for (Node node : list) {
+                if (node.key.getClass() == cls) {
+                    count += 1;
+                }
+            }
+            if (count <= TREEIFY_THRESHOLD) {
+                return;
+            }
+            tree = new TreeMap<>();
+            type = cls;
+            List<Node> rest = new ArrayList<>();
+            for (Node node : list) {
+                if (node.key.getClass() == cls) {
+                    tree.put(node.key, node);
+                } else {
+                    rest.add(node);
+                }
+            }
+            list = rest;
+        }
+
+        private void untreeify() {
+            list.addAll(tree.values());
+            tree = null;
+            type = null;
+        }
+
+        @Override
+        public Iterator<Node> iterator() {
+            if (tree == null) {
+                return list.iterator();
+            }
+            return Stream.concat(tree.values().stream(), list.stream()).iterator();
+        }
+
+        @Override
+        public int size() {
+            return (tree != null ? tree.size() : 0) + list.size();
+        }
+    }
+}
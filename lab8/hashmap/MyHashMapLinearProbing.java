@@ -0,0 +1,271 @@
+package hashmap;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressing hash table with linear probing.
+ *
+ * Instead of buckets of Nodes, the table is three parallel arrays: the keys,
+ * the values and each key's (spread) hash code. An item lives in the first
+ * free slot at or after its home slot, hash & (length - 1), so a lookup scans
+ * a contiguous run of slots and only calls equals() on keys whose cached hash
+ * matches. A null key marks a free slot.
+ *
+ * remove() leaves no tombstones. It shifts later items of the run back into
+ * the hole whenever their home slot allows it, so every run stays as short as
+ * if the removed item had never been inserted.
+ *
+ * Assumes null keys will never be inserted, and does not resize down upon
+ * remove().
+ * @author tuysss
+ */
+public class MyHashMapLinearProbing<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.75;
+
+    /* Instance Variables */
+    private K[] keys;
+    private V[] values;
+    private int[] hashes;
+    private int size;
+    private final double maxLoad;
+    /** Resize once size reaches this. */
+    private int threshold;
+    /** Bumped on every structural change, to fail fast in iterators. */
+    private int modCount;
+
+    /** Constructors */
+    public MyHashMapLinearProbing() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD);
+    }
+
+    public MyHashMapLinearProbing(int initialSize) {
+        this(initialSize, DEFAULT_LOAD);
+    }
+
+    /**
+     * Constructor that creates a backing array of at least initialSize
+     * slots. The load factor (# items / # slots) should always be <= maxLoad,
+     * which must be below 1 as every item takes a slot of its own.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapLinearProbing(int initialSize, double maxLoad) {
+        if (!(maxLoad > 0 && maxLoad < 1)) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        this.maxLoad = maxLoad;
+        createTable(tableSizeFor(Math.max(initialSize, 2)));
+    }
+
+    /** Returns the smallest power of two >= N. */
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(n);
+        return size == n ? n : size << 1;
+    }
+
+    /** Spreads the high bits of KEY's hash code into the low ones that pick
+     *  the home slot. */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int tableSize) {
+        keys = (K[]) new Object[tableSize];
+        values = (V[]) new Object[tableSize];
+        hashes = new int[tableSize];
+        threshold = (int) Math.min(tableSize - 1, (long) (tableSize * maxLoad));
+    }
+
+    /** Returns the slot holding KEY, or -1. */
+    private int find(Object key) {
+        int h = hash(key);
+        int mask = keys.length - 1;
+        for (int i = h & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        createTable(DEFAULT_SIZE);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && find(key) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        int h = hash(key);
+        int mask = keys.length - 1;
+        int i = h & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && key.equals(keys[i])) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = h;
+        size += 1;
+        modCount += 1;
+        if (size >= threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /** Moves every item into a fresh table of TABLESIZE slots. The cached
+     *  hashes spare calling hashCode() again. */
+    private void resize(int tableSize) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        createTable(tableSize);
+        int mask = tableSize - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) {
+                continue;
+            }
+            int i = oldHashes[j] & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            hashes[i] = oldHashes[j];
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        for (K key : keys) {
+            if (key != null) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0 || !(value == null ? values[i] == null : value.equals(values[i]))) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    /** Empties slot HOLE, then walks the rest of its run moving back every
+     *  item whose home slot is not cyclically between the hole and itself. */
+    private void delete(int hole) {
+        int mask = keys.length - 1;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == null) {
+                break;
+            }
+            int home = hashes[j] & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hashes[hole] = hashes[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size -= 1;
+        modCount += 1;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Iterates over the keys in slot order. */
+    private class KeyIterator implements Iterator<K> {
+        private int next = advance(0);
+        private final int expected = modCount;
+
+        /** Returns the first occupied slot at or after I. */
+        private int advance(int i) {
+            while (i < keys.length && keys[i] == null) {
+                i += 1;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public K next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = keys[next];
+            next = advance(next + 1);
+            return key;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package hashmap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A hash table from byte strings to byte strings that keeps its data off the
+ * Java heap, so that hundreds of millions of short entries cost the garbage
+ * collector nothing to trace.
+ *
+ * Entries are records appended to arenas, direct ByteBuffers of arenaSize
+ * bytes each:
+ *
+ *     int key length | int value length | key bytes | value bytes
+ *
+ * The index is an open-addressing table with linear probing, also in direct
+ * buffers, of 8-byte slots: 0 for an empty slot, else the top 16 bits of the
+ * key's hash next to the 48-bit address of its record. A lookup reads the
+ * record only when those 16 bits match. Keys are hashed with a SipHash of
+ * their own random key, so untrusted keys cannot flood the table.
+ *
+ * Keys and values are compared and hashed by content, unlike arrays in
+ * other maps. get() and the iterator return fresh copies, and put() copies
+ * its arguments in, so later changes to the arrays do not reach the map.
+ *
+ * A value of another length than the one it replaces, like a removed entry,
+ * leaves its old record behind as garbage. When garbage outweighs the live
+ * records, the live ones are copied into fresh arenas. footprint() reports
+ * what the map holds off heap.
+ *
+ * close() releases the buffers. Java 14 cannot free a direct buffer on the
+ * spot; dropping the last reference lets the next collection return its
+ * memory, which is as soon as java.nio allows. The map cannot be used once
+ * closed.
+ *
+ * Assumes null keys and values will never be inserted. Not thread-safe:
+ * reads move the buffers' positions too.
+ * @author tuysss
+ */
+public class MyHashMapOffHeap implements Map61B<byte[], byte[]>, AutoCloseable {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final int DEFAULT_ARENA_SIZE = 1 << 26;
+    private static final double MAX_LOAD = 0.75;
+    /** Bytes per index slot. */
+    private static final int SLOT = 8;
+    /** The index is split into buffers of at most 2^PAGE_SHIFT bytes, since
+     *  a ByteBuffer cannot exceed 2 GiB. */
+    private static final int PAGE_SHIFT = 27;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+    /** Record header: key and value lengths. */
+    private static final int HEADER = 8;
+    private static final long REF_MASK = (1L << 48) - 1;
+    /** An arena offset takes the low 31 bits of a record address. */
+    private static final int OFFSET_BITS = 31;
+
+    /* Instance Variables */
+    private final SipHash sipHash = new SipHash();
+    private final int arenaSize;
+    private ByteBuffer[] index;
+    /** Number of index slots, a power of two. */
+    private long slots;
+    private List<ByteBuffer> arenas;
+    /** Where the next record goes in the last arena. */
+    private int top;
+    private int size;
+    private long liveBytes;
+    private long garbageBytes;
+    private boolean closed;
+
+    /** Constructors */
+    public MyHashMapOffHeap() {
+        this(DEFAULT_SIZE, DEFAULT_ARENA_SIZE);
+    }
+
+    public MyHashMapOffHeap(int initialSize) {
+        this(initialSize, DEFAULT_ARENA_SIZE);
+    }
+
+    /**
+     * Constructor that creates an index for initialSize entries and
+     * allocates records in arenas of arenaSize bytes. Records larger than
+     * that get an arena of their own.
+     *
+     * @param initialSize expected number of entries
+     * @param arenaSize bytes per arena, at most 2^31 - 1
+     */
+    public MyHashMapOffHeap(int initialSize, int arenaSize) {
+        if (arenaSize <= HEADER) {
+            throw new IllegalArgumentException("arena too small");
+        }
+        this.arenaSize = arenaSize;
+        reset(initialSize);
+    }
+
+    private void reset(int initialSize) {
+        long n = Long.highestOneBit(Math.max(2, (long) (initialSize / MAX_LOAD)));
+        index = createIndex(n < initialSize / MAX_LOAD ? n << 1 : n);
+        arenas = new ArrayList<>();
+        top = 0;
+        size = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+    }
+
+    private ByteBuffer[] createIndex(long tableSize) {
+        slots = tableSize;
+        long bytes = tableSize * SLOT;
+        int pages = (int) ((bytes + PAGE_MASK) >>> PAGE_SHIFT);
+        ByteBuffer[] pagesArray = new ByteBuffer[pages];
+        for (int p = 0; p < pages; p++) {
+            pagesArray[p] = ByteBuffer.allocateDirect((int) Math.min(bytes, 1L << PAGE_SHIFT));
+        }
+        return pagesArray;
+    }
+
+    private long slot(long i) {
+        long address = i * SLOT;
+        return index[(int) (address >>> PAGE_SHIFT)].getLong((int) (address & PAGE_MASK));
+    }
+
+    private void setSlot(long i, long value) {
+        long address = i * SLOT;
+        index[(int) (address >>> PAGE_SHIFT)].putLong((int) (address & PAGE_MASK), value);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("map is closed");
+        }
+    }
+
+    /* Records. A record address is 1 + (arena << 31 | offset), so that 0
+     * never is one. */
+
+    private ByteBuffer arena(long ref) {
+        return arenas.get((int) ((ref - 1) >>> OFFSET_BITS));
+    }
+
+    private static int offset(long ref) {
+        return (int) ((ref - 1) & ((1L << OFFSET_BITS) - 1));
+    }
+
+    private int recordBytes(long ref) {
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        return HEADER + a.getInt(off) + a.getInt(off + 4);
+    }
+
+    /** Returns the address of BYTES bytes newly set aside for a record,
+     *  in a new arena if the last one is too full. */
+    private long reserve(int bytes) {
+        ByteBuffer a = arenas.isEmpty() ? null : arenas.get(arenas.size() - 1);
+        if (a == null || a.capacity() - top < bytes) {
+            arenas.add(ByteBuffer.allocateDirect(Math.max(arenaSize, bytes)));
+            top = 0;
+        }
+        long ref = 1 + (((long) (arenas.size() - 1) << OFFSET_BITS) | top);
+        top += bytes;
+        liveBytes += bytes;
+        return ref;
+    }
+
+    /** Appends the record KEY -> VALUE and returns its address. */
+    private long append(byte[] key, byte[] value) {
+        long ref = reserve(HEADER + key.length + value.length);
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        a.putInt(off, key.length);
+        a.putInt(off + 4, value.length);
+        a.position(off + HEADER);
+        a.put(key);
+        a.put(value);
+        return ref;
+    }
+
+    private byte[] readKey(long ref) {
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        byte[] key = new byte[a.getInt(off)];
+        a.position(off + HEADER);
+        a.get(key);
+        return key;
+    }
+
+    private byte[] readValue(long ref) {
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        byte[] value = new byte[a.getInt(off + 4)];
+        a.position(off + HEADER + a.getInt(off));
+        a.get(value);
+        return value;
+    }
+
+    private boolean keyEquals(long ref, byte[] key) {
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        if (a.getInt(off) != key.length) {
+            return false;
+        }
+        off += HEADER;
+        for (int j = 0; j < key.length; j++) {
+            if (a.get(off + j) != key[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** The hash of the key of the record at REF. */
+    private long hashOf(long ref) {
+        ByteBuffer a = arena(ref);
+        int off = offset(ref);
+        return sipHash.hash(a, off + HEADER, a.getInt(off));
+    }
+
+    /* The index. */
+
+    /** Returns the slot of KEY, whose hash is H, or -1. */
+    private long find(byte[] key, long h) {
+        long mask = slots - 1;
+        long tag = h >>> 48;
+        for (long i = h & mask; ; i = (i + 1) & mask) {
+            long s = slot(i);
+            if (s == 0) {
+                return -1;
+            }
+            if (s >>> 48 == tag && keyEquals(s & REF_MASK, key)) {
+                return i;
+            }
+        }
+    }
+
+    /** Puts the entry for record REF, whose key hash is H, in the first
+     *  empty slot from its home on. */
+    private void insert(long ref, long h) {
+        long mask = slots - 1;
+        long i = h & mask;
+        while (slot(i) != 0) {
+            i = (i + 1) & mask;
+        }
+        setSlot(i, (h >>> 48) << 48 | ref);
+    }
+
+    private void resize(long tableSize) {
+        ByteBuffer[] old = index;
+        long oldSlots = slots;
+        index = createIndex(tableSize);
+        for (long j = 0; j < oldSlots; j++) {
+            long address = j * SLOT;
+            long s = old[(int) (address >>> PAGE_SHIFT)].getLong((int) (address & PAGE_MASK));
+            if (s != 0) {
+                insert(s & REF_MASK, hashOf(s & REF_MASK));
+            }
+        }
+    }
+
+    /** Copies the live records into fresh arenas, dropping the garbage. */
+    public void compact() {
+        checkOpen();
+        List<ByteBuffer> old = arenas;
+        arenas = new ArrayList<>();
+        top = 0;
+        liveBytes = 0;
+        garbageBytes = 0;
+        for (long i = 0; i < slots; i++) {
+            long s = slot(i);
+            if (s == 0) {
+                continue;
+            }
+            long ref = s & REF_MASK;
+            ByteBuffer a = old.get((int) ((ref - 1) >>> OFFSET_BITS));
+            int off = offset(ref);
+            byte[] record = new byte[HEADER + a.getInt(off) + a.getInt(off + 4)];
+            a.position(off);
+            a.get(record);
+            long copy = reserve(record.length);
+            ByteBuffer b = arena(copy);
+            b.position(offset(copy));
+            b.put(record);
+            setSlot(i, (s & ~REF_MASK) | copy);
+        }
+    }
+
+    /** Compacts once garbage outweighs the live records and fills at least
+     *  an arena, so that the copying is paid for by the writes that made
+     *  the garbage. */
+    private void compactIfWasteful() {
+        if (garbageBytes > liveBytes && garbageBytes >= arenaSize) {
+            compact();
+        }
+    }
+
+    /* Map61B. */
+
+    @Override
+    public void clear() {
+        checkOpen();
+        reset(DEFAULT_SIZE);
+    }
+
+    @Override
+    public boolean containsKey(byte[] key) {
+        checkOpen();
+        return key != null && find(key, sipHash.hash(key)) >= 0;
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        checkOpen();
+        if (key == null) {
+            return null;
+        }
+        long i = find(key, sipHash.hash(key));
+        return i < 0 ? null : readValue(slot(i) & REF_MASK);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        checkOpen();
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("null key or value");
+        }
+        compactIfWasteful();
+        long h = sipHash.hash(key);
+        long i = find(key, h);
+        if (i >= 0) {
+            long s = slot(i);
+            long ref = s & REF_MASK;
+            ByteBuffer a = arena(ref);
+            int off = offset(ref);
+            if (a.getInt(off + 4) == value.length) {
+                a.position(off + HEADER + key.length);
+                a.put(value);
+                return;
+            }
+            int old = recordBytes(ref);
+            liveBytes -= old;
+            garbageBytes += old;
+            setSlot(i, (s & ~REF_MASK) | append(key, value));
+            return;
+        }
+        if (size + 1 > slots * MAX_LOAD) {
+            resize(slots * 2);
+        }
+        insert(append(key, value), h);
+        size += 1;
+    }
+
+    @Override
+    public Set<byte[]> keySet() {
+        Set<byte[]> result = new HashSet<>();
+        for (byte[] key : this) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Override
+    public byte[] remove(byte[] key) {
+        return remove(key, null, false);
+    }
+
+    @Override
+    public byte[] remove(byte[] key, byte[] value) {
+        return remove(key, value, true);
+    }
+
+    /** Removes KEY, if MATCH only when its value has the same bytes as
+     *  VALUE. Returns the value removed, or null. */
+    private byte[] remove(byte[] key, byte[] value, boolean match) {
+        checkOpen();
+        if (key == null) {
+            return null;
+        }
+        long hole = find(key, sipHash.hash(key));
+        if (hole < 0) {
+            return null;
+        }
+        long ref = slot(hole) & REF_MASK;
+        byte[] old = readValue(ref);
+        if (match && !Arrays.equals(old, value)) {
+            return null;
+        }
+        int bytes = recordBytes(ref);
+        liveBytes -= bytes;
+        garbageBytes += bytes;
+        size -= 1;
+
+        long mask = slots - 1;
+        for (long j = (hole + 1) & mask; slot(j) != 0; j = (j + 1) & mask) {
+            long s = slot(j);
+            long home = hashOf(s & REF_MASK) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                setSlot(hole, s);
+                hole = j;
+            }
+        }
+        setSlot(hole, 0);
+        compactIfWasteful();
+        return old;
+    }
+
+    @Override
+    public Iterator<byte[]> iterator() {
+        checkOpen();
+        return new KeyIterator();
+    }
+
+    /** Iterates over copies of the keys in slot order. */
+    private class KeyIterator implements Iterator<byte[]> {
+        private long next = advance(0);
+
+        /** Returns the first occupied slot at or after I. */
+        private long advance(long i) {
+            while (i < slots && slot(i) == 0) {
+                i += 1;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < slots;
+        }
+
+        @Override
+        public byte[] next() {
+            checkOpen();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            byte[] key = readKey(slot(next) & REF_MASK);
+            next = advance(next + 1);
+            return key;
+        }
+    }
+
+    /* Memory footprint. */
+
+    /** Returns the bytes of index allocated off heap. */
+    public long indexBytes() {
+        return slots * SLOT;
+    }
+
+    /** Returns the bytes of arenas allocated off heap. */
+    public long arenaBytes() {
+        long total = 0;
+        for (ByteBuffer a : arenas) {
+            total += a.capacity();
+        }
+        return total;
+    }
+
+    /** Returns the bytes of records still in use. */
+    public long liveBytes() {
+        return liveBytes;
+    }
+
+    /** Returns the bytes of records replaced or removed, until compact(). */
+    public long garbageBytes() {
+        return garbageBytes;
+    }
+
+    /** Returns a one-line summary of the memory held off heap. The arenas'
+     *  unused bytes include the tail each full arena was left with when a
+     *  record did not fit; only the last arena's tail can still be filled. */
+    public String footprint() {
+        return String.format("%d entries, %d bytes off heap: index %d (%d slots),"
+                + " arenas %d (%d live, %d garbage, %d unused)",
+                size, indexBytes() + arenaBytes(), indexBytes(), slots, arenaBytes(),
+                liveBytes, garbageBytes, arenaBytes() - liveBytes - garbageBytes);
+    }
+
+    /** Releases the off-heap memory. */
+    @Override
+    public void close() {
+        closed = true;
+        index = null;
+        arenas = null;
+        slots = 0;
+        size = 0;
+    }
+}
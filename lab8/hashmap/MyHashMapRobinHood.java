@@ -0,0 +1,318 @@
+package hashmap;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressing hash table with Robin Hood linear probing.
+ *
+ * Like MyHashMapLinearProbing, items sit in parallel key, value and hash
+ * arrays. The probe length of an item is how far it sits past its home slot.
+ * On insertion, an item that has probed further than the resident of a slot
+ * takes the slot over, and the resident moves on in its place. Items of a run
+ * therefore stay sorted by home slot, which evens the probe lengths out: their
+ * variance stays small even at a load factor of 0.9, the default here.
+ *
+ * A lookup stops as soon as it has probed further than the resident of the
+ * slot it is looking at, since its key would have displaced that resident.
+ * Misses thus cost about as much as hits instead of running to the end of
+ * the cluster, and no lookup probes more than maxProbeLength() slots.
+ *
+ * remove() shifts the rest of the run back by one, up to the first item that
+ * is in its home slot, so no tombstones are needed.
+ *
+ * Assumes null keys will never be inserted, and does not resize down upon
+ * remove().
+ * @author tuysss
+ */
+public class MyHashMapRobinHood<K, V> implements Map61B<K, V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.9;
+
+    /* Instance Variables */
+    private K[] keys;
+    private V[] values;
+    private int[] hashes;
+    private int size;
+    private final double maxLoad;
+    /** Resize once size reaches this. */
+    private int threshold;
+    /** Bumped on every structural change, to fail fast in iterators. */
+    private int modCount;
+
+    /** Constructors */
+    public MyHashMapRobinHood() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD);
+    }
+
+    public MyHashMapRobinHood(int initialSize) {
+        this(initialSize, DEFAULT_LOAD);
+    }
+
+    /**
+     * Constructor that creates a backing array of at least initialSize
+     * slots. The load factor (# items / # slots) should always be <= maxLoad,
+     * which must be below 1.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapRobinHood(int initialSize, double maxLoad) {
+        if (!(maxLoad > 0 && maxLoad < 1)) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        this.maxLoad = maxLoad;
+        int tableSize = Integer.highestOneBit(Math.max(initialSize, 2));
+        createTable(tableSize < initialSize ? tableSize << 1 : tableSize);
+    }
+
+    /** Scrambles KEY's hash code so that all its bits reach the low ones that
+     *  pick the home slot. Clustered homes would lengthen every probe. */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int tableSize) {
+        keys = (K[]) new Object[tableSize];
+        values = (V[]) new Object[tableSize];
+        hashes = new int[tableSize];
+        threshold = (int) Math.min(tableSize - 1, (long) (tableSize * maxLoad));
+    }
+
+    /** Returns how far the item in the occupied SLOT is past its home. */
+    private int probeLength(int slot) {
+        return (slot - hashes[slot]) & (keys.length - 1);
+    }
+
+    /** Returns the slot holding KEY, or -1. */
+    private int find(Object key) {
+        int h = hash(key);
+        int mask = keys.length - 1;
+        int i = h & mask;
+        for (int dist = 0; keys[i] != null && dist <= probeLength(i); dist++) {
+            if (hashes[i] == h && key.equals(keys[i])) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        createTable(DEFAULT_SIZE);
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && find(key) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        int i = find(key);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        insert(key, value, hash(key));
+        size += 1;
+        modCount += 1;
+        if (size >= threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /** Places a new item, displacing residents that are closer to home. */
+    private void insert(K key, V value, int h) {
+        int mask = keys.length - 1;
+        int i = h & mask;
+        for (int dist = 0; keys[i] != null; dist++) {
+            int resident = probeLength(i);
+            if (resident < dist) {
+                K k = keys[i];
+                V v = values[i];
+                int rh = hashes[i];
+                keys[i] = key;
+                values[i] = value;
+                hashes[i] = h;
+                key = k;
+                value = v;
+                h = rh;
+                dist = resident;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = h;
+    }
+
+    /** Moves every item into a fresh table of TABLESIZE slots. */
+    private void resize(int tableSize) {
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        int[] oldHashes = hashes;
+        createTable(tableSize);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                insert(oldKeys[j], oldValues[j], oldHashes[j]);
+            }
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        for (K key : keys) {
+            if (key != null) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0 || !(value == null ? values[i] == null : value.equals(values[i]))) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    /** Empties slot HOLE and shifts the displaced items after it back. */
+    private void delete(int hole) {
+        int mask = keys.length - 1;
+        int j = (hole + 1) & mask;
+        while (keys[j] != null && probeLength(j) > 0) {
+            keys[hole] = keys[j];
+            values[hole] = values[j];
+            hashes[hole] = hashes[j];
+            hole = j;
+            j = (j + 1) & mask;
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size -= 1;
+        modCount += 1;
+    }
+
+    /* Probe-length statistics. A probe length of 0 means the item is in its
+     * home slot; a successful lookup of it compares PROBE LENGTH + 1 keys. */
+
+    /** Returns the largest probe length of any item, 0 if empty. */
+    public int maxProbeLength() {
+        int max = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                max = Math.max(max, probeLength(i));
+            }
+        }
+        return max;
+    }
+
+    /** Returns the mean probe length of the items, 0 if empty. */
+    public double meanProbeLength() {
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                total += probeLength(i);
+            }
+        }
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    /** Returns an array whose element d counts the items of probe length
+     *  d, for d from 0 to maxProbeLength(). */
+    public int[] probeLengthHistogram() {
+        int[] histogram = new int[maxProbeLength() + 1];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                histogram[probeLength(i)] += 1;
+            }
+        }
+        return histogram;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Iterates over the keys in slot order. */
+    private class KeyIterator implements Iterator<K> {
+        private int next = advance(0);
+        private final int expected = modCount;
+
+        /** Returns the first occupied slot at or after I. */
+        private int advance(int i) {
+            while (i < keys.length && keys[i] == null) {
+                i += 1;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public K next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = keys[next];
+            next = advance(next + 1);
+            return key;
+        }
+    }
+}
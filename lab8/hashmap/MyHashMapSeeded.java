@@ -0,0 +1,50 @@
+package hashmap;
+
+/**
+ * Hash Table that resists hash flooding.
+ *
+ * Every instance draws its own random key and picks buckets by the keyed
+ * SipHash of a key instead of its hashCode(), so colliding keys cannot be
+ * computed in advance. Use it for maps keyed on untrusted input, such as
+ * request headers. Only String keys are fully protected; see
+ * SipHash.hash32.
+ * @author tuysss
+ */
+public class MyHashMapSeeded<K, V> extends MyHashMap<K, V> {
+
+    private final SipHash sipHash = new SipHash();
+
+    /**
+     * Constructor that creates a backing array with default
+     * initial size and load factor
+     */
+    public MyHashMapSeeded() {
+        super();
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize
+     * and default load factor
+     *
+     * @param initialSize initial size of backing array
+     */
+    public MyHashMapSeeded(int initialSize) {
+        super(initialSize);
+    }
+
+    /**
+     * Constructor that creates a backing array of initialSize.
+     * The load factor (# items / # buckets) should always be <= loadFactor
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyHashMapSeeded(int initialSize, double maxLoad) {
+        super(initialSize, maxLoad);
+    }
+
+    @Override
+    protected int hash(K key) {
+        return sipHash.hash32(key);
+    }
+}
@@ -0,0 +1,334 @@
+package hashmap;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open-addressing hash table after Abseil's SwissTable.
+ *
+ * Slots come in groups of 8. Besides the key and value arrays, every slot has
+ * a control byte, and the 8 control bytes of a group are packed into one long
+ * of the ctrl array (slot j in byte j, counting from the low end). A control
+ * byte is EMPTY, DELETED or, for a full slot, the low 7 bits of the key's
+ * hash (its "H2"). The other bits ("H1") pick the group where the key's probe
+ * sequence starts; after that, groups are visited in triangular steps.
+ *
+ * A lookup compares H2 against all 8 control bytes of a group at once with a
+ * few word operations (SWAR: SIMD within a register), and only looks at the
+ * keys whose byte matched, about one in 128 of the other keys. It stops at
+ * the first group with an EMPTY slot, so most misses never read the key
+ * array at all.
+ *
+ * Removal writes EMPTY if the group already has an empty slot, since no probe
+ * sequence can run past such a group, and a DELETED tombstone otherwise.
+ * Tombstones are reclaimed by inserts and by rehashing.
+ *
+ * Assumes null keys will never be inserted.
+ * @author tuysss
+ */
+public class MyHashMapSwissTable<K, V> implements Map61B<K, V> {
+
+    private static final int GROUP = 8;
+    private static final int DEFAULT_SIZE = 16;
+    /** Load factor this table grows at: 7/8, as in SwissTable. */
+    private static final double MAX_LOAD = 0.875;
+
+    private static final long EMPTY = 0x80;
+    private static final long DELETED = 0xFE;
+    private static final long ALL_EMPTY = 0x8080808080808080L;
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+
+    /* Instance Variables */
+    private long[] ctrl;
+    private K[] keys;
+    private V[] values;
+    private int size;
+    /** Inserts into EMPTY slots left before the table must be rehashed. */
+    private int growthLeft;
+    /** Bumped on every structural change, to fail fast in iterators. */
+    private int modCount;
+
+    /** Constructors */
+    public MyHashMapSwissTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor that creates a table with room for at least initialSize
+     * items before it has to grow.
+     *
+     * @param initialSize initial capacity
+     */
+    public MyHashMapSwissTable(int initialSize) {
+        createTable(groupsFor(initialSize));
+    }
+
+    /** Returns the number of groups, a power of two, that holds N items. */
+    private static int groupsFor(int n) {
+        double slots = Math.max(n, 1) / MAX_LOAD;
+        int groups = 1;
+        while (groups * GROUP < slots) {
+            groups <<= 1;
+        }
+        return groups;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int groups) {
+        ctrl = new long[groups];
+        Arrays.fill(ctrl, ALL_EMPTY);
+        keys = (K[]) new Object[groups * GROUP];
+        values = (V[]) new Object[groups * GROUP];
+        growthLeft = (int) (groups * GROUP * MAX_LOAD);
+    }
+
+    /** Scrambles KEY's hash code so that both H1 and H2 depend on all of
+     *  its bits. */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /* SWAR matching. Each returns a word with the high bit of byte j set
+     * for the slots j of GROUP that qualify. */
+
+    /** The slots whose control byte is H2. May, rarely, also flag a byte
+     *  just above a true match, which the key comparison weeds out. */
+    private static long match(long group, int h2) {
+        long x = group ^ (LSBS * h2);
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    /** The EMPTY slots: high bit set and bit 1 clear. */
+    private static long matchEmpty(long group) {
+        return group & (~group << 6) & MSBS;
+    }
+
+    /** The EMPTY or DELETED slots: high bit set. */
+    private static long matchFree(long group) {
+        return group & MSBS;
+    }
+
+    /** Returns the slot of the lowest byte flagged in MATCHES of group G. */
+    private static int slot(int g, long matches) {
+        return g * GROUP + (Long.numberOfTrailingZeros(matches) >>> 3);
+    }
+
+    private void setCtrl(int slot, long value) {
+        int shift = (slot % GROUP) * 8;
+        int g = slot / GROUP;
+        ctrl[g] = (ctrl[g] & ~(0xFFL << shift)) | (value << shift);
+    }
+
+    /** Returns the slot holding KEY, or -1. */
+    private int find(Object key) {
+        int h = hash(key);
+        int h2 = h & 0x7F;
+        int mask = ctrl.length - 1;
+        int g = (h >>> 7) & mask;
+        for (int step = 1; ; step++) {
+            long group = ctrl[g];
+            for (long m = match(group, h2); m != 0; m &= m - 1) {
+                int i = slot(g, m);
+                if (key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            if (matchEmpty(group) != 0 || step > ctrl.length) {
+                return -1;
+            }
+            g = (g + step) & mask;
+        }
+    }
+
+    /** Returns the first free slot on the probe sequence of hash H. */
+    private int findFree(int h) {
+        int mask = ctrl.length - 1;
+        int g = (h >>> 7) & mask;
+        for (int step = 1; ; step++) {
+            long free = matchFree(ctrl[g]);
+            if (free != 0) {
+                return slot(g, free);
+            }
+            g = (g + step) & mask;
+        }
+    }
+
+    @Override
+    public void clear() {
+        createTable(groupsFor(DEFAULT_SIZE));
+        size = 0;
+        modCount += 1;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return key != null && find(key) >= 0;
+    }
+
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("null key");
+        }
+        int i = find(key);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        int h = hash(key);
+        i = findFree(h);
+        if (growthLeft == 0 && ctrlAt(i) == EMPTY) {
+            rehash();
+            i = findFree(h);
+        }
+        if (ctrlAt(i) == EMPTY) {
+            growthLeft -= 1;
+        }
+        setCtrl(i, h & 0x7F);
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        modCount += 1;
+    }
+
+    private long ctrlAt(int slot) {
+        return (ctrl[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xFF;
+    }
+
+    /** Rebuilds the table without tombstones, doubling it unless they were
+     *  taking up a good part of it. */
+    private void rehash() {
+        int groups = ctrl.length;
+        if (size + 1 > groups * GROUP * MAX_LOAD / 2) {
+            groups *= 2;
+        }
+        K[] oldKeys = keys;
+        V[] oldValues = values;
+        long[] oldCtrl = ctrl;
+        createTable(groups);
+        for (int g = 0; g < oldCtrl.length; g++) {
+            for (long full = ~oldCtrl[g] & MSBS; full != 0; full &= full - 1) {
+                int j = slot(g, full);
+                int h = hash(oldKeys[j]);
+                int i = findFree(h);
+                setCtrl(i, h & 0x7F);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+                growthLeft -= 1;
+            }
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> result = new HashSet<>();
+        for (K key : this) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        if (key == null) {
+            return null;
+        }
+        int i = find(key);
+        if (i < 0 || !(value == null ? values[i] == null : value.equals(values[i]))) {
+            return null;
+        }
+        V old = values[i];
+        delete(i);
+        return old;
+    }
+
+    private void delete(int i) {
+        if (matchEmpty(ctrl[i / GROUP]) != 0) {
+            setCtrl(i, EMPTY);
+            growthLeft += 1;
+        } else {
+            setCtrl(i, DELETED);
+        }
+        keys[i] = null;
+        values[i] = null;
+        size -= 1;
+        modCount += 1;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return new KeyIterator();
+    }
+
+    /** Iterates over the keys in slot order, a group at a time. */
+    private class KeyIterator implements Iterator<K> {
+        private int g = -1;
+        /** The full slots of group g not yet returned. */
+        private long full;
+        private final int expected = modCount;
+
+        KeyIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (full == 0 && g + 1 < ctrl.length) {
+                g += 1;
+                full = ~ctrl[g] & MSBS;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return full != 0;
+        }
+
+        @Override
+        public K next() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K key = keys[slot(g, full)];
+            full &= full - 1;
+            advance();
+            return key;
+        }
+    }
+}
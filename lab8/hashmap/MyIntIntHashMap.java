@@ -0,0 +1,214 @@
+package hashmap;
+
+/**
+ * IntIntMap61B over two parallel int arrays, with linear probing.
+ *
+ * A key of 0 marks a free slot, so an actual key 0 cannot be stored in the
+ * table; it is kept on the side in hasZeroKey and zeroValue instead. Removal
+ * shifts the rest of the run back, as in MyHashMapLinearProbing.
+ *
+ * Does not resize down upon remove().
+ * @author tuysss
+ */
+public class MyIntIntHashMap implements IntIntMap61B {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.75;
+
+    /* Instance Variables */
+    private int[] keys;
+    private int[] values;
+    /** Items in the table, not counting key 0. */
+    private int size;
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private final double maxLoad;
+    /** Resize once size reaches this. */
+    private int threshold;
+
+    /** Constructors */
+    public MyIntIntHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD);
+    }
+
+    public MyIntIntHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD);
+    }
+
+    /**
+     * Constructor that creates a backing array of at least initialSize
+     * slots. The load factor (# items / # slots) should always be <= maxLoad,
+     * which must be below 1.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyIntIntHashMap(int initialSize, double maxLoad) {
+        if (!(maxLoad > 0 && maxLoad < 1)) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        this.maxLoad = maxLoad;
+        int tableSize = Integer.highestOneBit(Math.max(initialSize, 2));
+        createTable(tableSize < initialSize ? tableSize << 1 : tableSize);
+    }
+
+    private void createTable(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        threshold = (int) Math.min(tableSize - 1, (long) (tableSize * maxLoad));
+    }
+
+    /** Returns the home slot of KEY in a table with MASK + 1 slots. Keys
+     *  are often small or sequential, so their bits need mixing. */
+    private static int home(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** Returns the slot holding the nonzero KEY, or -1. */
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int i = home(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        createTable(DEFAULT_SIZE);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    @Override
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+
+    @Override
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = find(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    @Override
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    @Override
+    public void put(int key, int value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int i = slotFor(key);
+        values[i] = value;
+    }
+
+    @Override
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int i = slotFor(key);
+        values[i] += delta;
+        return values[i];
+    }
+
+    /** Returns the slot of the nonzero KEY, adding it with value 0 if it is
+     *  missing. */
+    private int slotFor(int key) {
+        int mask = keys.length - 1;
+        int i = home(key, mask);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (size + 1 >= threshold) {
+            resize(keys.length * 2);
+            return slotFor(key);
+        }
+        keys[i] = key;
+        values[i] = 0;
+        size += 1;
+        return i;
+    }
+
+    private void resize(int tableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        createTable(tableSize);
+        int mask = tableSize - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) {
+                continue;
+            }
+            int i = home(oldKeys[j], mask);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    @Override
+    public int[] keys() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int remove(int key) {
+        if (key == 0) {
+            int old = hasZeroKey ? zeroValue : 0;
+            hasZeroKey = false;
+            zeroValue = 0;
+            return old;
+        }
+        int hole = find(key);
+        if (hole < 0) {
+            return 0;
+        }
+        int old = values[hole];
+        int mask = keys.length - 1;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int h = home(keys[j], mask);
+            if (((j - h) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size -= 1;
+        return old;
+    }
+}
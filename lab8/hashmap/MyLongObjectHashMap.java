@@ -0,0 +1,190 @@
+package hashmap;
+
+/**
+ * LongObjectMap61B over a long array of keys and an array of values, with
+ * linear probing.
+ *
+ * A key of 0 marks a free slot, so an actual key 0 cannot be stored in the
+ * table; it is kept on the side in hasZeroKey and zeroValue instead. Removal
+ * shifts the rest of the run back, as in MyHashMapLinearProbing.
+ *
+ * Does not resize down upon remove().
+ * @author tuysss
+ */
+public class MyLongObjectHashMap<V> implements LongObjectMap61B<V> {
+
+    private static final int DEFAULT_SIZE = 16;
+    private static final double DEFAULT_LOAD = 0.75;
+
+    /* Instance Variables */
+    private long[] keys;
+    private V[] values;
+    /** Items in the table, not counting key 0. */
+    private int size;
+    private boolean hasZeroKey;
+    private V zeroValue;
+    private final double maxLoad;
+    /** Resize once size reaches this. */
+    private int threshold;
+
+    /** Constructors */
+    public MyLongObjectHashMap() {
+        this(DEFAULT_SIZE, DEFAULT_LOAD);
+    }
+
+    public MyLongObjectHashMap(int initialSize) {
+        this(initialSize, DEFAULT_LOAD);
+    }
+
+    /**
+     * Constructor that creates a backing array of at least initialSize
+     * slots. The load factor (# items / # slots) should always be <= maxLoad,
+     * which must be below 1.
+     *
+     * @param initialSize initial size of backing array
+     * @param maxLoad maximum load factor
+     */
+    public MyLongObjectHashMap(int initialSize, double maxLoad) {
+        if (!(maxLoad > 0 && maxLoad < 1)) {
+            throw new IllegalArgumentException("maxLoad must be in (0, 1)");
+        }
+        this.maxLoad = maxLoad;
+        int tableSize = Integer.highestOneBit(Math.max(initialSize, 2));
+        createTable(tableSize < initialSize ? tableSize << 1 : tableSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void createTable(int tableSize) {
+        keys = new long[tableSize];
+        values = (V[]) new Object[tableSize];
+        threshold = (int) Math.min(tableSize - 1, (long) (tableSize * maxLoad));
+    }
+
+    /** Returns the home slot of KEY in a table with MASK + 1 slots. */
+    private static int home(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Returns the slot holding the nonzero KEY, or -1. */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = home(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void clear() {
+        createTable(DEFAULT_SIZE);
+        size = 0;
+        hasZeroKey = false;
+        zeroValue = null;
+    }
+
+    @Override
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    @Override
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int i = find(key);
+        return i < 0 ? null : values[i];
+    }
+
+    @Override
+    public int size() {
+        return hasZeroKey ? size + 1 : size;
+    }
+
+    @Override
+    public void put(long key, V value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int i = home(key, mask);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        if (size >= threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private void resize(int tableSize) {
+        long[] oldKeys = keys;
+        V[] oldValues = values;
+        createTable(tableSize);
+        int mask = tableSize - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == 0) {
+                continue;
+            }
+            int i = home(oldKeys[j], mask);
+            while (keys[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    @Override
+    public long[] keys() {
+        long[] result = new long[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[n++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public V remove(long key) {
+        if (key == 0) {
+            V old = zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            return old;
+        }
+        int hole = find(key);
+        if (hole < 0) {
+            return null;
+        }
+        V old = values[hole];
+        int mask = keys.length - 1;
+        for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+            int h = home(keys[j], mask);
+            if (((j - h) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size -= 1;
+        return old;
+    }
+}
@@ -0,0 +1,145 @@
+package hashmap;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+/**
+ * SipHash-2-4 (Aumasson and Bernstein), a keyed hash function. Without the
+ * 128-bit key, nobody can predict which inputs collide, so a table that
+ * hashes with a secret, random key cannot be flooded with keys chosen to
+ * land in one bucket. It is much slower than String.hashCode(), which the
+ * JVM caches, so only maps exposed to untrusted keys should pay for it.
+ *
+ * Strings are hashed as their UTF-16LE bytes, four chars to a word, without
+ * encoding them first.
+ * @author tuysss
+ */
+public final class SipHash {
+
+    private static final SecureRandom SEEDS = new SecureRandom();
+
+    private final long k0;
+    private final long k1;
+
+    /** A hash function with a fresh random key. */
+    public SipHash() {
+        this(SEEDS.nextLong(), SEEDS.nextLong());
+    }
+
+    /** A hash function with the key K0, K1 (the key's first and last 8
+     *  bytes, little-endian). */
+    public SipHash(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    /** Returns the 64-bit hash of DATA. */
+    public long hash(byte[] data) {
+        return hash(ByteBuffer.wrap(data), 0, data.length);
+    }
+
+    /** Returns the 64-bit hash of the N bytes of BUF from OFFSET on. The
+     *  buffer's position, limit and byte order do not matter. */
+    public long hash(ByteBuffer buf, int offset, int n) {
+        State s = new State(k0, k1);
+        int end = offset + n - n % 8;
+        for (int i = offset; i < end; i += 8) {
+            long m = 0;
+            for (int j = 7; j >= 0; j--) {
+                m = (m << 8) | (buf.get(i + j) & 0xFF);
+            }
+            s.compress(m);
+        }
+        long last = (long) n << 56;
+        for (int j = offset + n - 1; j >= end; j--) {
+            last |= (long) (buf.get(j) & 0xFF) << (8 * (j - end));
+        }
+        return s.finish(last);
+    }
+
+    /** Returns the 64-bit hash of the UTF-16LE bytes of S. */
+    public long hash(String s) {
+        State st = new State(k0, k1);
+        int n = s.length();
+        int end = n - n % 4;
+        for (int i = 0; i < end; i += 4) {
+            st.compress(s.charAt(i) | (long) s.charAt(i + 1) << 16
+                        | (long) s.charAt(i + 2) << 32 | (long) s.charAt(i + 3) << 48);
+        }
+        long last = (long) (2 * n) << 56;
+        for (int j = end; j < n; j++) {
+            last |= (long) s.charAt(j) << (16 * (j - end));
+        }
+        return st.finish(last);
+    }
+
+    /** Returns a 32-bit hash of KEY: SipHash for Strings. Other keys only
+     *  get their hashCode() mixed with the key, which makes their buckets
+     *  unpredictable but cannot separate equal hash codes. Byte arrays are
+     *  among them: maps compare them by identity, so hashing their content
+     *  would buy nothing. */
+    public int hash32(Object key) {
+        long h;
+        if (key instanceof String) {
+            h = hash((String) key);
+        } else {
+            h = mix(key.hashCode() ^ k0) + k1;
+            h = mix(h);
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** The finalizer of MurmurHash3's 64-bit variant. */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /** The four words of SipHash's internal state. */
+    private static final class State {
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        State(long k0, long k1) {
+            v0 = k0 ^ 0x736F6D6570736575L;
+            v1 = k1 ^ 0x646F72616E646F6DL;
+            v2 = k0 ^ 0x6C7967656E657261L;
+            v3 = k1 ^ 0x7465646279746573L;
+        }
+
+        private void round() {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13) ^ v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16) ^ v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21) ^ v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17) ^ v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+
+        /** Absorbs the message word M. */
+        void compress(long m) {
+            v3 ^= m;
+            round();
+            round();
+            v0 ^= m;
+        }
+
+        /** Absorbs the final word LAST and returns the hash. */
+        long finish(long last) {
+            compress(last);
+            v2 ^= 0xFF;
+            round();
+            round();
+            round();
+            round();
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+    }
+}
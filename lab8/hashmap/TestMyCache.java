@@ -0,0 +1,148 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Tests of MyCache under both policies, and of its FrequencySketch. */
+public class TestMyCache {
+
+    @Test
+    public void lruEvictsLeastRecentlyUsedTest() {
+        Cache61B<String, Integer> c = new MyCache<>(new MyHashMap<>(), 3, MyCache.Policy.LRU);
+        c.put("a", 1);
+        c.put("b", 2);
+        c.put("c", 3);
+        assertEquals(1, (int) c.get("a"));
+        c.put("d", 4);
+        assertEquals(3, c.size());
+        assertNull(c.get("b"));
+        assertEquals(3, (int) c.get("c"));
+        assertEquals(4, (int) c.get("d"));
+        assertEquals(1, (int) c.get("a"));
+        CacheStats stats = c.stats();
+        assertEquals(4, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(0.8, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void lruMatchesLinkedHashMapTest() {
+        final int max = 10;
+        Map<Integer, Integer> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > max;
+            }
+        };
+        Cache61B<Integer, Integer> c =
+            new MyCache<>(new MyHashMapLinearProbing<>(), max, MyCache.Policy.LRU);
+        Random r = new Random(61);
+        for (int i = 0; i < 100000; i++) {
+            int key = r.nextInt(30);
+            switch (r.nextInt(4)) {
+                case 0:
+                    expected.put(key, i);
+                    c.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), c.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), c.get(key));
+            }
+            assertEquals(expected.size(), c.size());
+        }
+    }
+
+    @Test
+    public void weightBoundedTest() {
+        Cache61B<String, String> c = new MyCache<>(new MyHashMap<>(), 100,
+            MyCache.Policy.W_TINY_LFU, (key, value) -> value.length());
+        Random r = new Random(61);
+        for (int i = 0; i < 10000; i++) {
+            c.put("k" + r.nextInt(200), "v".repeat(r.nextInt(30)));
+            assertTrue(c.weightedSize() <= c.maximumWeight());
+        }
+        // An entry heavier than the whole cache is evicted right away.
+        c.put("huge", "v".repeat(101));
+        assertNull(c.get("huge"));
+        assertTrue(c.weightedSize() <= c.maximumWeight());
+        c.clear();
+        assertEquals(0, c.size());
+        assertEquals(0, c.weightedSize());
+    }
+
+    @Test
+    public void tinyLfuResistsScanTest() {
+        Cache61B<Integer, Integer> lru = new MyCache<>(new MyHashMap<>(), 100, MyCache.Policy.LRU);
+        Cache61B<Integer, Integer> lfu = new MyCache<>(100);
+        for (Cache61B<Integer, Integer> c : List.of(lru, lfu)) {
+            for (int round = 0; round < 10; round++) {
+                for (int key = 0; key < 50; key++) {
+                    if (c.get(key) == null) {
+                        c.put(key, key);
+                    }
+                }
+            }
+            // A scan of five times as many keys, each used once. (A much longer
+            // one would age the hot keys' counts until they lose too.)
+            for (int key = 1000; key < 1500; key++) {
+                if (c.get(key) == null) {
+                    c.put(key, key);
+                }
+            }
+        }
+        int lruHot = 0;
+        int lfuHot = 0;
+        for (int key = 0; key < 50; key++) {
+            lruHot += lru.get(key) == null ? 0 : 1;
+            lfuHot += lfu.get(key) == null ? 0 : 1;
+        }
+        assertEquals(0, lruHot);
+        assertEquals(50, lfuHot);
+    }
+
+    @Test
+    public void removeIsNotEvictionTest() {
+        Cache61B<String, Integer> c = new MyCache<>(10);
+        c.put("a", 1);
+        c.put("a", 2);
+        assertEquals(1, c.size());
+        assertEquals(2, (int) c.remove("a"));
+        assertNull(c.remove("a"));
+        assertNull(c.get("a"));
+        assertEquals(0, c.size());
+        assertEquals(0, c.stats().evictionCount());
+        assertEquals(1, c.stats().missCount());
+    }
+
+    @Test
+    public void sketchTest() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("a");
+        }
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("b");
+        }
+        assertEquals(5, sketch.frequency("a"));
+        assertEquals(15, sketch.frequency("b"));
+        assertEquals(0, sketch.frequency("c"));
+        // A count-min sketch may overestimate, but never underestimates.
+        sketch = new FrequencySketch(256);
+        for (int key = 0; key < 100; key++) {
+            for (int i = 0; i < key % 15; i++) {
+                sketch.increment(key);
+            }
+        }
+        for (int key = 0; key < 100; key++) {
+            assertTrue(sketch.frequency(key) >= key % 15);
+        }
+    }
+}
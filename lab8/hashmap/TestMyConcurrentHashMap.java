@@ -0,0 +1,116 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tests of the lock-striped MyConcurrentHashMap. */
+public class TestMyConcurrentHashMap {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(MyConcurrentHashMap::new);
+    }
+
+    /** Runs TASK on THREADS threads at once and waits for all of them. */
+    private static <T> List<T> inParallel(Callable<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(task));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrentComputeCountsTest() throws Exception {
+        // A single stripe with a tiny table makes the threads contend and
+        // resize as much as possible.
+        MyConcurrentHashMap<Integer, Integer> m = new MyConcurrentHashMap<>(1, 0.75, 1);
+        inParallel(() -> {
+            for (int i = 0; i < 20000; i++) {
+                m.compute(i % 1000, (k, v) -> v == null ? 1 : v + 1);
+            }
+            return null;
+        });
+        assertEquals(1000, m.size());
+        for (int k = 0; k < 1000; k++) {
+            assertEquals(20 * THREADS, m.get(k).intValue());
+        }
+    }
+
+    @Test
+    public void putIfAbsentHasOneWinnerTest() throws Exception {
+        MyConcurrentHashMap<String, Integer> m = new MyConcurrentHashMap<>();
+        AtomicInteger ids = new AtomicInteger();
+        List<Integer> wins = inParallel(() -> {
+            int id = ids.incrementAndGet();
+            int won = 0;
+            for (int i = 0; i < 5000; i++) {
+                if (m.putIfAbsent("k" + i, id) == null) {
+                    won += 1;
+                }
+            }
+            return won;
+        });
+        int total = 0;
+        for (int w : wins) {
+            total += w;
+        }
+        assertEquals(5000, total);
+        assertEquals(5000, m.size());
+    }
+
+    @Test
+    public void concurrentPutRemoveAndIterateTest() throws Exception {
+        MyConcurrentHashMap<Integer, Integer> m = new MyConcurrentHashMap<>();
+        for (int k = 0; k < 1000; k++) {
+            m.put(-1 - k, k);
+        }
+        AtomicInteger ids = new AtomicInteger();
+        inParallel(() -> {
+            int id = ids.getAndIncrement();
+            for (int i = 0; i < 20000; i++) {
+                int key = id * 20000 + i;
+                m.put(key, i);
+                if (i % 2 == 0) {
+                    assertEquals(i, m.remove(key).intValue());
+                }
+                if (i % 5000 == 0) {
+                    // Keys that were there all along must show up.
+                    Set<Integer> seen = new HashSet<>();
+                    for (int k : m) {
+                        seen.add(k);
+                    }
+                    for (int k = 0; k < 1000; k++) {
+                        assertTrue(seen.contains(-1 - k));
+                    }
+                }
+            }
+            return null;
+        });
+        assertEquals(1000 + THREADS * 10000, m.size());
+        assertEquals(m.size(), m.keySet().size());
+        assertNull(m.get(0));
+        assertEquals(1, m.get(1).intValue());
+    }
+}
@@ -3,7 +3,10 @@ package hashmap;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -27,7 +30,7 @@ public class TestMyHashMap {
         sanityClearTest(new MyHashMap<>());
     }
 
-    public static void sanityClearTest(MyHashMap<String, Integer> b) {
+    public static void sanityClearTest(Map61B<String, Integer> b) {
         for (int i = 0; i < 455; i++) {
             b.put("hi" + i, 1);
             //make sure put is working via containsKey and get
@@ -47,7 +50,7 @@ public class TestMyHashMap {
         sanityContainsKeyTest(new MyHashMap<>());
     }
 
-    public static void sanityContainsKeyTest(MyHashMap<String, Integer> b) {
+    public static void sanityContainsKeyTest(Map61B<String, Integer> b) {
         assertFalse(b.containsKey("waterYouDoingHere"));
         b.put("waterYouDoingHere", 0);
         assertTrue(b.containsKey("waterYouDoingHere"));
@@ -59,7 +62,7 @@ public class TestMyHashMap {
         sanityGetTest(new MyHashMap<>());
     }
 
-    public static void sanityGetTest(MyHashMap<String, Integer> b) {
+    public static void sanityGetTest(Map61B<String, Integer> b) {
         assertEquals(null, b.get("starChild"));
         b.put("starChild", 5);
         assertNotEquals(null, b.get("starChild"));
@@ -74,7 +77,7 @@ public class TestMyHashMap {
         sanitySizeTest(new MyHashMap<>());
     }
 
-    public static void sanitySizeTest(MyHashMap<String, Integer> b) {
+    public static void sanitySizeTest(Map61B<String, Integer> b) {
         assertEquals(0, b.size());
         b.put("hi", 1);
         assertEquals(1, b.size());
@@ -90,7 +93,7 @@ public class TestMyHashMap {
         sanityPutTest(new MyHashMap<>());
     }
 
-    public static void sanityPutTest(MyHashMap<String, Integer> b) {
+    public static void sanityPutTest(Map61B<String, Integer> b) {
         b.put("hi", 1);
         assertTrue(b.containsKey("hi") && b.get("hi") != null);
     }
@@ -100,7 +103,7 @@ public class TestMyHashMap {
         sanityKeySetTest(new MyHashMap<>());
     }
 
-    public static void sanityKeySetTest(MyHashMap<String, Integer> b) {
+    public static void sanityKeySetTest(Map61B<String, Integer> b) {
         HashSet<String> values = new HashSet<String>();
         for (int i = 0; i < 455; i++) {
             b.put("hi" + i, 1);
@@ -118,8 +121,8 @@ public class TestMyHashMap {
         functionalityTest(new MyHashMap<>(), new MyHashMap<>());
     }
 
-    public static void functionalityTest(MyHashMap<String, String> dictionary,
-                                   MyHashMap<String, Integer> studentIDs) {
+    public static void functionalityTest(Map61B<String, String> dictionary,
+                                   Map61B<String, Integer> studentIDs) {
         assertEquals(0, dictionary.size());
 
         // can put objects in dictionary and get them
@@ -158,4 +161,70 @@ public class TestMyHashMap {
         assertEquals(345, studentIDs.get("evil alan").intValue());
         assertEquals(studentIDs.get("evil alan"), studentIDs.get("alan"));
     }
+
+    /** Makes empty maps of one implementation, for any key and value type. */
+    public interface Maps {
+        <K, V> Map61B<K, V> create();
+    }
+
+    /** Runs every sanity test and the functionality test on fresh maps
+     *  from MAPS. */
+    public static void sanityTest(Maps maps) {
+        sanityClearTest(maps.create());
+        sanityContainsKeyTest(maps.create());
+        sanityGetTest(maps.create());
+        sanitySizeTest(maps.create());
+        sanityPutTest(maps.create());
+        sanityKeySetTest(maps.create());
+        functionalityTest(maps.create(), maps.create());
+    }
+
+    /** Checks M against a java.util.HashMap over a long run of random puts,
+     *  overwrites, removes and lookups. The keys are multiples of 64, so
+     *  only their high bits tell them apart. */
+    public static void randomOpsTest(Map61B<Integer, Integer> m) {
+        Random r = new Random(61);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 100000; step++) {
+            int key = r.nextInt(2000) * 64;
+            switch (r.nextInt(4)) {
+                case 0:
+                    assertEquals(expected.remove(key), m.remove(key));
+                    break;
+                case 1:
+                    assertEquals(expected.get(key), m.get(key));
+                    break;
+                default:
+                    expected.put(key, step);
+                    m.put(key, step);
+            }
+            assertEquals(expected.size(), m.size());
+        }
+        for (int key = 0; key < 2000 * 64; key += 32) {
+            assertEquals(expected.get(key), m.get(key));
+        }
+        assertEquals(expected.keySet(), m.keySet());
+    }
+
+    /** Keys whose hash codes all fall into HOMES values, so that probe runs,
+     *  groups and buckets fill up. */
+    public static class Colliding {
+        final int n;
+        private final int homes;
+
+        public Colliding(int n, int homes) {
+            this.n = n;
+            this.homes = homes;
+        }
+
+        @Override
+        public int hashCode() {
+            return n % homes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).n == n;
+        }
+    }
 }
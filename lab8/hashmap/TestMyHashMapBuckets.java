@@ -36,6 +36,11 @@ public class TestMyHashMapBuckets {
         b = new MyHashMapPQBuckets<>();
         c = new MyHashMapPQBuckets<>();
         d = new MyHashMapPQBuckets<>();
+
+        a = new MyHashMapAdaptiveBuckets<>();
+        b = new MyHashMapAdaptiveBuckets<>();
+        c = new MyHashMapAdaptiveBuckets<>();
+        d = new MyHashMapAdaptiveBuckets<>();
     }
 
     //assumes put/size/containsKey/get work
@@ -46,6 +51,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityClearTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityClearTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityClearTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -56,6 +62,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityContainsKeyTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityContainsKeyTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -66,6 +73,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityGetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityGetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityGetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // assumes put works
@@ -76,6 +84,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanitySizeTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanitySizeTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanitySizeTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     //assumes get/containskey work
@@ -86,6 +95,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityPutTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityPutTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityPutTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     @Test
@@ -95,6 +105,7 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.sanityKeySetTest(new MyHashMapTSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapHSBuckets<>());
         TestMyHashMap.sanityKeySetTest(new MyHashMapPQBuckets<>());
+        TestMyHashMap.sanityKeySetTest(new MyHashMapAdaptiveBuckets<>());
     }
 
     // Test for general functionality and that the properties of Maps hold.
@@ -105,5 +116,101 @@ public class TestMyHashMapBuckets {
         TestMyHashMap.functionalityTest(new MyHashMapTSBuckets<>(), new MyHashMapTSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapHSBuckets<>(), new MyHashMapHSBuckets<>());
         TestMyHashMap.functionalityTest(new MyHashMapPQBuckets<>(), new MyHashMapPQBuckets<>());
+        TestMyHashMap.functionalityTest(new MyHashMapAdaptiveBuckets<>(),
+                new MyHashMapAdaptiveBuckets<>());
+    }
+
+    /** Comparable keys that all hash alike, counting the comparisons made
+     *  between them. */
+    private static class Colliding implements Comparable<Colliding> {
+        static int comparisons = 0;
+        final int n;
+
+        Colliding(int n) {
+            this.n = n;
+        }
+
+        @Override
+        public int hashCode() {
+            return 61;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            comparisons += 1;
+            return o instanceof Colliding && ((Colliding) o).n == n;
+        }
+
+        @Override
+        public int compareTo(Colliding o) {
+            comparisons += 1;
+            return Integer.compare(n, o.n);
+        }
+    }
+
+    // With every key in one bucket, a tree keeps lookups logarithmic.
+    @Test
+    public void adaptiveBucketsCollisionTest() {
+        MyHashMapAdaptiveBuckets<Colliding, Integer> m = new MyHashMapAdaptiveBuckets<>();
+        int n = 4096;
+        for (int i = 0; i < n; i++) {
+            m.put(new Colliding(i), i);
+        }
+        Colliding.comparisons = 0;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, m.get(new Colliding(i)).intValue());
+        }
+        assertFalse(m.containsKey(new Colliding(-1)));
+        assertTrue(Colliding.comparisons < 20 * n);
+
+        // Shrinking back to a list keeps every remaining key.
+        for (int i = 0; i < n - 3; i++) {
+            assertEquals(i, m.remove(new Colliding(i)).intValue());
+        }
+        assertEquals(3, m.size());
+        for (int i = n - 3; i < n; i++) {
+            assertTrue(m.containsKey(new Colliding(i)));
+        }
+    }
+
+    // Keys of mixed classes in one bucket keep it a list, and still work.
+    @Test
+    public void adaptiveBucketsMixedKeysTest() {
+        MyHashMapAdaptiveBuckets<Object, Integer> m = new MyHashMapAdaptiveBuckets<>(1);
+        for (int i = 0; i < 100; i++) {
+            m.put(i, i);
+            m.put("s" + i, -i);
+            m.put((long) i, 1000 + i);
+        }
+        assertEquals(300, m.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, m.get(i).intValue());
+            assertEquals(-i, m.get("s" + i).intValue());
+            assertEquals(1000 + i, m.get((long) i).intValue());
+        }
+    }
+
+    // Keys of another class that hash alike sit beside the tree, not in it,
+    // so lookups of the colliding class stay logarithmic.
+    @Test
+    public void adaptiveBucketsOddKeyTest() {
+        MyHashMapAdaptiveBuckets<Object, Integer> m = new MyHashMapAdaptiveBuckets<>();
+        int n = 4096;
+        m.put(61, -1);
+        for (int i = 0; i < n; i++) {
+            m.put(new Colliding(i), i);
+        }
+        m.put(61L, -2);
+        assertEquals(n + 2, m.size());
+        Colliding.comparisons = 0;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, m.get(new Colliding(i)).intValue());
+        }
+        assertTrue(Colliding.comparisons < 20 * n);
+        assertEquals(-1, m.get(61).intValue());
+        assertEquals(-2, m.get(61L).intValue());
+        assertEquals(-1, m.remove(61).intValue());
+        assertNull(m.get(61));
+        assertEquals(n + 1, m.keySet().size());
     }
 }
@@ -0,0 +1,68 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/** Tests of MyHashMap in incremental resize mode. */
+public class TestMyHashMapIncremental {
+
+    private static <K, V> MyHashMap<K, V> incremental() {
+        return new MyHashMap<>(1, 0.75, true);
+    }
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(TestMyHashMapIncremental::incremental);
+    }
+
+    /** Interleaves puts, overwrites, removes and lookups, so that keys are
+     *  touched in every state of a migration. */
+    @Test
+    public void randomOpsMatchHashMapTest() {
+        TestMyHashMap.randomOpsTest(incremental());
+    }
+
+    // Lookups in the loop move buckets under the iterator; each key must
+    // still come out exactly once.
+    @Test
+    public void iterateDuringMigrationTest() {
+        for (int n = 1; n < 3000; n = n * 3 + 1) {
+            MyHashMap<Integer, Integer> m = incremental();
+            for (int k = 0; k < n; k++) {
+                m.put(k, k);
+            }
+            Set<Integer> seen = new HashSet<>();
+            for (int k : m) {
+                assertTrue(seen.add(k));
+                assertEquals(k, m.get(k).intValue());
+                assertNull(m.get(-1 - k));
+            }
+            assertEquals(n, seen.size());
+        }
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorFailsFastTest() {
+        MyHashMap<Integer, Integer> m = incremental();
+        for (int k = 0; k < 100; k++) {
+            m.put(k, k);
+        }
+        Iterator<Integer> keys = m.iterator();
+        keys.next();
+        m.put(100, 100);
+        keys.next();
+    }
+
+    @Test
+    public void bucketTypesTest() {
+        TestMyHashMap.functionalityTest(new MyHashMapLLBuckets<>(),
+                new MyHashMapLLBuckets<>());
+        TestMyHashMap.functionalityTest(new MyHashMapTSBuckets<>(),
+                new MyHashMapTSBuckets<>());
+    }
+}
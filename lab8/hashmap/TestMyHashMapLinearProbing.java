@@ -0,0 +1,46 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import hashmap.TestMyHashMap.Colliding;
+
+/** Tests of the open-addressing MyHashMapLinearProbing. */
+public class TestMyHashMapLinearProbing {
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(MyHashMapLinearProbing::new);
+    }
+
+    // Three home slots make long runs for removals to shift back.
+    @Test
+    public void removeShiftsRunBackTest() {
+        MyHashMapLinearProbing<Colliding, Integer> m = new MyHashMapLinearProbing<>(8);
+        for (int i = 0; i < 40; i++) {
+            m.put(new Colliding(i, 3), i);
+        }
+        for (int i = 0; i < 40; i += 2) {
+            assertEquals(i, m.remove(new Colliding(i, 3)).intValue());
+        }
+        assertEquals(20, m.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i % 2 == 1, m.containsKey(new Colliding(i, 3)));
+        }
+    }
+
+    @Test
+    public void randomOpsMatchHashMapTest() {
+        TestMyHashMap.randomOpsTest(new MyHashMapLinearProbing<>(2, 0.9));
+    }
+
+    @Test
+    public void conditionalRemoveTest() {
+        MyHashMapLinearProbing<String, String> m = new MyHashMapLinearProbing<>();
+        m.put("a", "x");
+        assertNull(m.remove("a", "y"));
+        assertTrue(m.containsKey("a"));
+        assertEquals("x", m.remove("a", "x"));
+        assertFalse(m.containsKey("a"));
+    }
+}
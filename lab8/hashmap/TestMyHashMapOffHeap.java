@@ -0,0 +1,166 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/** Tests of the off-heap MyHashMapOffHeap. */
+public class TestMyHashMapOffHeap {
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] b) {
+        return b == null ? null : new String(b, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void basicsTest() {
+        try (MyHashMapOffHeap m = new MyHashMapOffHeap()) {
+            assertEquals(0, m.size());
+            assertNull(m.get(bytes("a")));
+            m.put(bytes("a"), bytes("1"));
+            m.put(bytes(""), bytes("empty key"));
+            m.put(bytes("b"), new byte[0]);
+            assertEquals(3, m.size());
+            // Keys are compared by content, not identity.
+            assertEquals("1", string(m.get(bytes("a"))));
+            assertEquals("empty key", string(m.get(bytes(""))));
+            assertArrayEquals(new byte[0], m.get(bytes("b")));
+            m.put(bytes("a"), bytes("2"));
+            m.put(bytes("a"), bytes("longer"));
+            assertEquals(3, m.size());
+            assertEquals("longer", string(m.get(bytes("a"))));
+            assertNull(m.remove(bytes("a"), bytes("2")));
+            assertEquals("longer", string(m.remove(bytes("a"), bytes("longer"))));
+            assertFalse(m.containsKey(bytes("a")));
+            assertEquals(2, m.keySet().size());
+        }
+    }
+
+    /** An Integer view of an off-heap map that stores numbers as their
+     *  decimal strings, so records come in different lengths. */
+    private static class DecimalView implements Map61B<Integer, Integer> {
+        private final MyHashMapOffHeap m;
+
+        DecimalView(MyHashMapOffHeap m) {
+            this.m = m;
+        }
+
+        private static byte[] encode(Integer n) {
+            return bytes(n.toString());
+        }
+
+        private static Integer decode(byte[] b) {
+            return b == null ? null : Integer.valueOf(string(b));
+        }
+
+        @Override
+        public void clear() {
+            m.clear();
+        }
+
+        @Override
+        public boolean containsKey(Integer key) {
+            return m.containsKey(encode(key));
+        }
+
+        @Override
+        public Integer get(Integer key) {
+            return decode(m.get(encode(key)));
+        }
+
+        @Override
+        public int size() {
+            return m.size();
+        }
+
+        @Override
+        public void put(Integer key, Integer value) {
+            m.put(encode(key), encode(value));
+        }
+
+        @Override
+        public Set<Integer> keySet() {
+            Set<Integer> keys = new HashSet<>();
+            for (byte[] key : m) {
+                keys.add(decode(key));
+            }
+            return keys;
+        }
+
+        @Override
+        public Integer remove(Integer key) {
+            return decode(m.remove(encode(key)));
+        }
+
+        @Override
+        public Integer remove(Integer key, Integer value) {
+            return decode(m.remove(encode(key), encode(value)));
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return keySet().iterator();
+        }
+    }
+
+    @Test
+    public void randomOpsMatchHashMapTest() {
+        // Small arenas, so records spread over many and compaction runs.
+        try (MyHashMapOffHeap m = new MyHashMapOffHeap(1, 256)) {
+            TestMyHashMap.randomOpsTest(new DecimalView(m));
+        }
+    }
+
+    @Test
+    public void footprintAndCompactTest() {
+        try (MyHashMapOffHeap m = new MyHashMapOffHeap(100, 1 << 16)) {
+            for (int i = 0; i < 100; i++) {
+                m.put(bytes("key" + i), new byte[100]);
+            }
+            long live = m.liveBytes();
+            assertEquals(100 * (8 + 100) + 10 * 4 + 90 * 5, live);
+            for (int i = 0; i < 50; i++) {
+                m.remove(bytes("key" + i));
+            }
+            assertEquals(live, m.liveBytes() + m.garbageBytes());
+            m.compact();
+            assertEquals(0, m.garbageBytes());
+            assertEquals(live / 2, m.liveBytes(), 50);
+            assertEquals(50, m.size());
+            assertArrayEquals(new byte[100], m.get(bytes("key99")));
+            assertTrue(m.footprint().startsWith("50 entries"));
+        }
+    }
+
+    // Removals alone compact the arenas once they are mostly garbage.
+    @Test
+    public void removeCompactsTest() {
+        try (MyHashMapOffHeap m = new MyHashMapOffHeap(1, 256)) {
+            for (int i = 0; i < 1000; i++) {
+                m.put(bytes("key" + i), new byte[20]);
+            }
+            long arenas = m.arenaBytes();
+            for (int i = 0; i < 990; i++) {
+                m.remove(bytes("key" + i));
+                assertTrue(m.garbageBytes() <= m.liveBytes() || m.garbageBytes() < 256);
+            }
+            assertTrue(m.arenaBytes() < arenas / 10);
+            assertArrayEquals(new byte[20], m.get(bytes("key999")));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        MyHashMapOffHeap m = new MyHashMapOffHeap();
+        m.put(bytes("a"), bytes("b"));
+        m.close();
+        m.get(bytes("a"));
+    }
+}
@@ -0,0 +1,43 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/** Tests of the Robin Hood MyHashMapRobinHood. */
+public class TestMyHashMapRobinHood {
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(MyHashMapRobinHood::new);
+    }
+
+    @Test
+    public void randomOpsMatchHashMapTest() {
+        TestMyHashMap.randomOpsTest(new MyHashMapRobinHood<>(2, 0.95));
+    }
+
+    @Test
+    public void probeStatisticsTest() {
+        MyHashMapRobinHood<Integer, Integer> m = new MyHashMapRobinHood<>(1024);
+        assertEquals(0, m.maxProbeLength());
+        assertEquals(0, m.meanProbeLength(), 0);
+        Random r = new Random(8);
+        for (int i = 0; i < 900; i++) {
+            m.put(r.nextInt(), i);
+        }
+        int[] histogram = m.probeLengthHistogram();
+        assertEquals(m.maxProbeLength() + 1, histogram.length);
+        int count = 0;
+        long total = 0;
+        for (int d = 0; d < histogram.length; d++) {
+            count += histogram[d];
+            total += (long) d * histogram[d];
+        }
+        assertEquals(m.size(), count);
+        assertEquals((double) total / count, m.meanProbeLength(), 1e-9);
+        // Expected around 4 at this load; far less than linear probing's tail.
+        assertTrue(m.meanProbeLength() < 8);
+    }
+}
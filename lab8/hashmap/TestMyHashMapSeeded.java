@@ -0,0 +1,51 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+/** Tests of SipHash and of the flooding-resistant MyHashMapSeeded. */
+public class TestMyHashMapSeeded {
+
+    /** The key 00 01 ... 0f of the SipHash paper's test vectors. */
+    private static final SipHash PAPER = new SipHash(0x0706050403020100L, 0x0f0e0d0c0b0a0908L);
+
+    private static byte[] counting(int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = (byte) i;
+        }
+        return b;
+    }
+
+    @Test
+    public void sipHashVectorsTest() {
+        assertEquals(0x726fdb47dd0e0e31L, PAPER.hash(new byte[0]));
+        assertEquals(0x74f839c593dc67fdL, PAPER.hash(counting(1)));
+        assertEquals(0x93f5f5799a932462L, PAPER.hash(counting(8)));
+        assertEquals(0xa129ca6149be45e5L, PAPER.hash(counting(15)));
+    }
+
+    @Test
+    public void sipHashStringMatchesBytesTest() {
+        for (String s : new String[] {"", "a", "Aa", "abc", "abcd", "h\u00e9llo w\u00f6rld", "\ud83d\ude00!"}) {
+            assertEquals(PAPER.hash(s.getBytes(StandardCharsets.UTF_16LE)), PAPER.hash(s));
+        }
+    }
+
+    @Test
+    public void seedsDifferTest() {
+        SipHash a = new SipHash();
+        SipHash b = new SipHash();
+        // "Aa" and "BB" share a String.hashCode(), but not a SipHash.
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(a.hash32("Aa"), a.hash32("BB"));
+        assertNotEquals(a.hash32("Aa"), b.hash32("Aa"));
+    }
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(MyHashMapSeeded::new);
+    }
+}
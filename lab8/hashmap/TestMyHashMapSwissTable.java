@@ -0,0 +1,44 @@
+package hashmap;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import hashmap.TestMyHashMap.Colliding;
+
+/** Tests of the SwissTable-style MyHashMapSwissTable. */
+public class TestMyHashMapSwissTable {
+
+    @Test
+    public void sanityTest() {
+        TestMyHashMap.sanityTest(MyHashMapSwissTable::new);
+    }
+
+    @Test
+    public void randomOpsMatchHashMapTest() {
+        TestMyHashMap.randomOpsTest(new MyHashMapSwissTable<>(1));
+    }
+
+    // Five hash codes fill groups up, and removals leave tombstones that
+    // later inserts and rehashes have to handle.
+    @Test
+    public void collidingChurnTest() {
+        MyHashMapSwissTable<Colliding, Integer> m = new MyHashMapSwissTable<>();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                m.put(new Colliding(round * 100 + i, 5), i);
+            }
+            for (int i = 0; i < 100; i += 2) {
+                assertEquals(i, m.remove(new Colliding(round * 100 + i, 5)).intValue());
+            }
+        }
+        assertEquals(2500, m.size());
+        int count = 0;
+        for (Colliding c : m) {
+            assertEquals(1, (c.n % 100) % 2);
+            count += 1;
+        }
+        assertEquals(2500, count);
+        assertFalse(m.containsKey(new Colliding(0, 5)));
+        assertTrue(m.containsKey(new Colliding(4999, 5)));
+    }
+}
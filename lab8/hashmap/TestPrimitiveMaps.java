@@ -0,0 +1,142 @@
+package hashmap;
+
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** Tests of the primitive-keyed MyIntIntHashMap and MyLongObjectHashMap. */
+public class TestPrimitiveMaps {
+
+    @Test
+    public void intIntBasicsTest() {
+        IntIntMap61B m = new MyIntIntHashMap();
+        assertEquals(0, m.size());
+        assertFalse(m.containsKey(0));
+        assertEquals(-1, m.getOrDefault(7, -1));
+        m.put(7, 70);
+        m.put(0, 5);
+        m.put(-3, 0);
+        assertEquals(3, m.size());
+        assertEquals(70, m.get(7));
+        assertEquals(5, m.get(0));
+        assertTrue(m.containsKey(-3));
+        assertEquals(0, m.getOrDefault(-3, -1));
+        m.put(7, 71);
+        assertEquals(3, m.size());
+        int[] keys = m.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new int[] {-3, 0, 7}, keys);
+        assertEquals(5, m.remove(0));
+        assertFalse(m.containsKey(0));
+        m.clear();
+        assertEquals(0, m.size());
+        assertFalse(m.containsKey(7));
+    }
+
+    @Test
+    public void intIntAddToTest() {
+        IntIntMap61B m = new MyIntIntHashMap(2);
+        for (int i = 0; i < 1000; i++) {
+            m.addTo(i % 10, 1);
+        }
+        assertEquals(10, m.size());
+        for (int k = 0; k < 10; k++) {
+            assertEquals(100, m.get(k));
+        }
+        assertEquals(99, m.addTo(0, -1));
+    }
+
+    @Test
+    public void intIntRandomOpsMatchHashMapTest() {
+        Random r = new Random(61);
+        IntIntMap61B m = new MyIntIntHashMap(2, 0.9);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 100000; step++) {
+            int key = r.nextInt(2000) - 1000;
+            if (r.nextInt(3) == 0) {
+                Integer old = expected.remove(key);
+                assertEquals(old == null ? 0 : old, m.remove(key));
+            } else {
+                expected.put(key, step);
+                m.put(key, step);
+            }
+            assertEquals(expected.size(), m.size());
+        }
+        for (int key = -1000; key < 1000; key++) {
+            assertEquals(expected.containsKey(key), m.containsKey(key));
+            assertEquals(expected.getOrDefault(key, -1).intValue(), m.getOrDefault(key, -1));
+        }
+    }
+
+    @Test
+    public void longObjectRandomOpsMatchHashMapTest() {
+        Random r = new Random(62);
+        LongObjectMap61B<String> m = new MyLongObjectHashMap<>(2);
+        Map<Long, String> expected = new HashMap<>();
+        for (int step = 0; step < 100000; step++) {
+            long key = (r.nextInt(2000) - 1000) * 0x100000000L;
+            if (r.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), m.remove(key));
+            } else {
+                expected.put(key, "v" + step);
+                m.put(key, "v" + step);
+            }
+            assertEquals(expected.size(), m.size());
+        }
+        long[] keys = m.keys();
+        assertEquals(expected.size(), keys.length);
+        for (long key : keys) {
+            assertEquals(expected.get(key), m.get(key));
+        }
+        assertNull(m.get(12345));
+    }
+
+    /** Bytes allocated so far by this thread. */
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Puts, gets and addTos on 1000 keys, then the same on long keys. */
+    private static long churn(IntIntMap61B ints, LongObjectMap61B<String> longs) {
+        long sum = 0;
+        for (int i = 0; i < 1000; i++) {
+            ints.put(i, i);
+            sum += ints.get(i);
+            sum += ints.addTo(i, 1);
+            longs.put(i * 0x100000000L, "v");
+            sum += longs.get(i * 0x100000000L).length();
+        }
+        return sum;
+    }
+
+    // Once the tables are sized and the code is compiled, the primitive maps
+    // never box a key or value.
+    @Test
+    public void noAllocationTest() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        IntIntMap61B ints = new MyIntIntHashMap(4096);
+        LongObjectMap61B<String> longs = new MyLongObjectHashMap<>(4096);
+        for (int round = 0; round < 200; round++) {
+            churn(ints, longs);
+        }
+        // What reading the counter costs, so only the maps' share is checked.
+        long overhead = -allocatedBytes(threads) + allocatedBytes(threads);
+        long before = allocatedBytes(threads);
+        long sum = churn(ints, longs);
+        long allocated = allocatedBytes(threads) - before - overhead;
+        assertTrue(sum > 0);
+        assertEquals(0, allocated);
+    }
+}
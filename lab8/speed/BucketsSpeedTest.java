@@ -11,6 +11,9 @@ import hashmap.MyHashMapLLBuckets;
 import hashmap.MyHashMapTSBuckets;
 import hashmap.MyHashMapHSBuckets;
 import hashmap.MyHashMapPQBuckets;
+import hashmap.MyHashMapAdaptiveBuckets;
+import hashmap.MyHashMapSeeded;
+import hashmap.MyHashMapLinearProbing;
 
 /** Performs a timing test on three different set implementations.
  *  @author Neil Kulkarni adapted from Josh Hug, Brendan Hu
@@ -42,6 +45,9 @@ public class BucketsSpeedTest {
             timeRandomMap61B(new MyHashMapTSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapHSBuckets<>(), N, L);
             timeRandomMap61B(new MyHashMapPQBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapAdaptiveBuckets<>(), N, L);
+            timeRandomMap61B(new MyHashMapSeeded<>(), N, L);
+            timeRandomMap61B(new MyHashMapLinearProbing<>(), N, L);
 
             System.out.print("\nWould you like to try more timed-tests? (y/n)");
             repeat = input.nextLine();
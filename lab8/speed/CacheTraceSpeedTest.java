@@ -0,0 +1,119 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.Cache61B;
+import hashmap.MyCache;
+import hashmap.MyHashMap;
+
+/** Replays traces of key requests against MyCache under LRU and W-TinyLFU,
+ *  as a cache in front of a slow store: a get() that misses is followed by
+ *  a put(). Prints each policy's hit rate and the requests it serves per
+ *  second. The traces are Zipf-distributed keys, a loop over more keys than
+ *  fit, and Zipf keys interrupted by scans; or, given a file name as the
+ *  argument, the keys in that file, one per line.
+ *  @author tuysss
+ */
+public class CacheTraceSpeedTest {
+    /** Length of each scan in the mixed trace, in cache sizes. */
+    private static final int SCAN_LENGTH = 2;
+
+    /**
+     * Requests user input and replays each trace. ARGS may hold the name of
+     * a trace file.
+     */
+    public static void main(String[] args) throws IOException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program replays N requests against caches of C entries"
+                + " under LRU and W-TinyLFU.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter the cache size C: ");
+            int C = BucketsSpeedTest.waitForPositiveInt(input);
+            if (args.length > 0) {
+                List<String> lines = Files.readAllLines(Paths.get(args[0]));
+                replay(args[0], lines.toArray(new String[0]), C);
+            } else {
+                System.out.print("Enter # requests N: ");
+                int N = BucketsSpeedTest.waitForPositiveInt(input);
+                System.out.print("Enter # distinct keys: ");
+                int keys = BucketsSpeedTest.waitForPositiveInt(input);
+                Random r = new Random(61);
+                replay("zipf 0.99", zipf(r, N, keys, 0.99), C);
+                replay("zipf 0.7", zipf(r, N, keys, 0.7), C);
+                replay("loop", loop(N, C + C / 2), C);
+                replay("zipf 0.99 + scans", withScans(zipf(r, N, keys, 0.99), keys, C), C);
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns N keys out of KEYS, key k drawn with probability
+     *  proportional to 1 / (k + 1)^S. */
+    private static Integer[] zipf(Random r, int n, int keys, double s) {
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        Integer[] trace = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            int k = Arrays.binarySearch(cdf, r.nextDouble() * sum);
+            trace[i] = k >= 0 ? k : -k - 1;
+        }
+        return trace;
+    }
+
+    /** Returns N keys going round 0 to KEYS - 1 in order. */
+    private static Integer[] loop(int n, int keys) {
+        Integer[] trace = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            trace[i] = i % keys;
+        }
+        return trace;
+    }
+
+    /** Overwrites every other stretch of TRACE, SCAN_LENGTH cache sizes long,
+     *  with keys never requested before, each once; past KEYS, so that they
+     *  miss TRACE's own. */
+    private static Integer[] withScans(Integer[] trace, int keys, int cacheSize) {
+        int stretch = SCAN_LENGTH * cacheSize;
+        int next = keys;
+        for (int i = 0; i < trace.length; i++) {
+            if ((i / stretch) % 2 == 1) {
+                trace[i] = next++;
+            }
+        }
+        return trace;
+    }
+
+    private static <K> void replay(String name, K[] trace, int cacheSize) {
+        System.out.println(name + ":");
+        for (MyCache.Policy policy : MyCache.Policy.values()) {
+            Cache61B<K, K> cache = new MyCache<>(new MyHashMap<>(), cacheSize, policy);
+            Stopwatch sw = new Stopwatch();
+            for (K key : trace) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+            double time = sw.elapsedTime();
+            System.out.printf("  %-10s hit rate %.4f, %.2f million requests/sec\n",
+                    policy, cache.stats().hitRate(), trace.length / time / 1e6);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package speed;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import hashmap.Map61B;
+import hashmap.MyConcurrentHashMap;
+
+/** Measures how the throughput of thread-safe maps scales with the number
+ *  of threads, from 1 to 32, on a mix of gets and puts over a shared key
+ *  space.
+ *  @author tuysss
+ */
+public class ConcurrentSpeedTest {
+    /** Thread counts tried. */
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+
+    /**
+     * Requests user input and times each map at each thread count. ARGS is
+     * unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program has 1 to 32 threads share one map of "
+                + "random Strings of length L.\n"
+                + " Each thread does N operations, a given percentage of them puts"
+                + " and the rest gets.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = BucketsSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # distinct keys: ");
+            String[] keys = new String[BucketsSpeedTest.waitForPositiveInt(input)];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = StringUtils.randomString(L);
+            }
+            System.out.print("Enter # operations per thread: ");
+            int N = BucketsSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter the percentage of puts (1-100): ");
+            int puts = Math.min(100, BucketsSpeedTest.waitForPositiveInt(input));
+
+            timeScaling("hashmap.MyConcurrentHashMap",
+                    MyConcurrentHashMap::new, keys, N, puts);
+            timeScaling("Java's ConcurrentHashMap",
+                    () -> new HashMapAdapter<>(new ConcurrentHashMap<>()), keys, N, puts);
+            timeScaling("Java's synchronized HashMap",
+                    () -> new HashMapAdapter<>(Collections.synchronizedMap(new HashMap<>())),
+                    keys, N, puts);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Prints the throughput of a fresh map from MAPS, filled with KEYS, at
+     * every thread count, each thread doing N operations of which PUTS
+     * percent are puts.
+     */
+    public static void timeScaling(String name, Supplier<Map61B<String, Integer>> maps,
+                                   String[] keys, int N, int puts)
+            throws InterruptedException {
+        System.out.println(name + ":");
+        for (int threads : THREADS) {
+            Map61B<String, Integer> map = maps.get();
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], i);
+            }
+            double seconds = run(map, threads, keys, N, puts);
+            System.out.printf("  %2d threads: %.2f sec, %.1f M ops/sec\n", threads,
+                    seconds, threads * (double) N / seconds / 1e6);
+        }
+    }
+
+    /** Returns the wall time THREADS threads take to do N operations each
+     *  on MAP. */
+    private static double run(Map61B<String, Integer> map, int threads, String[] keys,
+                              int N, int puts) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers[t] = new Thread(() -> {
+                Random r = new Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < N; i++) {
+                    String key = keys[r.nextInt(keys.length)];
+                    if (r.nextInt(100) < puts) {
+                        map.put(key, i);
+                    } else {
+                        map.get(key);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        return (System.nanoTime() - begin) / 1e9;
+    }
+}
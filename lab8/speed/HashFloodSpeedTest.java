@@ -0,0 +1,63 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+import hashmap.MyHashMapSeeded;
+
+/** Shows what hash flooding does: it inserts N Strings that all share one
+ *  hashCode() into MyHashMap, where they pile up in one bucket, and into
+ *  MyHashMapSeeded, where they spread out. For comparison, it also inserts
+ *  N random Strings of the same length into both.
+ *  @author tuysss
+ */
+public class HashFloodSpeedTest {
+
+    /**
+     * Requests user input and times the inserts. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts N Strings with identical hash codes,"
+                + " then N random ones,\n into maps that do and do not seed "
+                + "their hashing.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = BucketsSpeedTest.waitForPositiveInt(input);
+            int pairs = Math.max(1, 64 - Long.numberOfLeadingZeros(N - 1));
+            String[] flood = new String[N];
+            String[] random = new String[N];
+            for (int i = 0; i < N; i++) {
+                flood[i] = StringUtils.collidingString(i, pairs);
+                random[i] = StringUtils.randomString(2 * pairs);
+            }
+
+            timeInserts("colliding", new MyHashMap<>(), flood);
+            timeInserts("colliding", new MyHashMapSeeded<>(), flood);
+            timeInserts("random", new MyHashMap<>(), random);
+            timeInserts("random", new MyHashMapSeeded<>(), random);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Prints the time needed to put KEYS into MAP, then get them all. */
+    public static void timeInserts(String name, Map61B<String, Integer> map, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+        for (String key : keys) {
+            map.get(key);
+        }
+        System.out.printf("%s, %s keys: %.2f sec\n", map.getClass(), name, sw.elapsedTime());
+    }
+}
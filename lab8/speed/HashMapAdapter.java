@@ -0,0 +1,75 @@
+package speed;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import hashmap.Map61B;
+
+/** java.util.HashMap, or any other java.util.Map, seen as a Map61B, so
+ *  that timing code written against Map61B can run it alongside our own
+ *  maps.
+ *  @author tuysss
+ */
+public class HashMapAdapter<K, V> implements Map61B<K, V> {
+    private final Map<K, V> map;
+
+    public HashMapAdapter() {
+        this(new HashMap<>());
+    }
+
+    public HashMapAdapter(Map<K, V> map) {
+        this.map = map;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V get(K key) {
+        return map.get(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        map.put(key, value);
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    @Override
+    public V remove(K key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public V remove(K key, V value) {
+        return map.remove(key, value) ? value : null;
+    }
+
+    @Override
+    public Iterator<K> iterator() {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return "Java's Built-in " + map.getClass().getSimpleName();
+    }
+}
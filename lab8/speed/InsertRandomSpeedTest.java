@@ -8,6 +8,8 @@ import edu.princeton.cs.algs4.Stopwatch;
 import hashmap.Map61B;
 import hashmap.ULLMap;
 import hashmap.MyHashMap;
+import hashmap.MyHashMapLinearProbing;
+import hashmap.MyHashMapSeeded;
 
 /** Performs a timing test on three different set implementations.
  *  @author Josh Hug
@@ -39,6 +41,14 @@ public class InsertRandomSpeedTest {
             timeRandomMap61B(new MyHashMap<String, Integer>(),
                     waitForPositiveInt(input), L);
 
+            System.out.print("\nEnter # strings to insert into hashmap.MyHashMapSeeded: ");
+            timeRandomMap61B(new MyHashMapSeeded<String, Integer>(),
+                    waitForPositiveInt(input), L);
+
+            System.out.print("\nEnter # strings to insert into hashmap.MyHashMapLinearProbing: ");
+            timeRandomMap61B(new MyHashMapLinearProbing<String, Integer>(),
+                    waitForPositiveInt(input), L);
+
             System.out.print("\nEnter # strings to insert into Java's HashMap: ");
             timeRandomHashMap(new HashMap<String, Integer>(),
                     waitForPositiveInt(input), L);
@@ -0,0 +1,109 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.Random;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMapALBuckets;
+import hashmap.MyHashMapHSBuckets;
+import hashmap.MyHashMapSwissTable;
+
+/** Times lookups, rather than inserts, on a hit-heavy and a miss-heavy
+ *  workload, where a table that can reject a miss without looking at keys
+ *  pulls ahead.
+ *  @author tuysss
+ */
+public class LookupSpeedTest {
+    /** Lookups done per key in the map. */
+    private static final int LOOKUPS_PER_KEY = 4;
+
+    /**
+     * Requests user input and times both workloads on each map. ARGS is
+     * unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts N random "
+                + "Strings of length L into each map,\n"
+                + " then looks up 4N Strings, 90% or 10% of which are in it.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = BucketsSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = BucketsSpeedTest.waitForPositiveInt(input);
+            String[] present = new String[N];
+            String[] absent = new String[N];
+            for (int i = 0; i < N; i++) {
+                present[i] = StringUtils.randomString(L);
+                // Lower-case strings never contain '!', so these all miss.
+                absent[i] = StringUtils.randomString(L - 1) + "!";
+            }
+            String[] hitHeavy = workload(present, absent, 0.9);
+            String[] missHeavy = workload(present, absent, 0.1);
+
+            timeLookups(new MyHashMapALBuckets<>(), present, hitHeavy, missHeavy);
+            timeLookups(new MyHashMapHSBuckets<>(), present, hitHeavy, missHeavy);
+            timeLookups(new HashMapAdapter<>(), present, hitHeavy, missHeavy);
+            timeLookups(new MyHashMapSwissTable<>(), present, hitHeavy, missHeavy);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Returns LOOKUPS_PER_KEY lookups per key of PRESENT, drawn from
+     *  PRESENT with probability HITS and from ABSENT otherwise. */
+    private static String[] workload(String[] present, String[] absent, double hits) {
+        Random r = new Random(61);
+        String[] keys = new String[present.length * LOOKUPS_PER_KEY];
+        for (int i = 0; i < keys.length; i++) {
+            String[] from = r.nextDouble() < hits ? present : absent;
+            keys[i] = from[r.nextInt(from.length)];
+        }
+        return keys;
+    }
+
+    /**
+     * Puts PRESENT into MAP, then prints the time taken by the lookups of
+     * each workload.
+     */
+    public static void timeLookups(Map61B<String, Integer> map, String[] present,
+                                   String[] hitHeavy, String[] missHeavy) {
+        try {
+            for (int i = 0; i < present.length; i++) {
+                map.put(present[i], i);
+            }
+            String name = map instanceof HashMapAdapter ? map.toString()
+                    : map.getClass().toString();
+            System.out.printf("%s: hit-heavy %.2f sec, miss-heavy %.2f sec\n",
+                    name, getAll(map, hitHeavy), getAll(map, missHeavy));
+        } catch (StackOverflowError e) {
+            System.out.println("--Stack Overflow -- couldn't add " + present.length
+                    + " strings.");
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Returns the time needed to get each of KEYS from MAP. */
+    private static double getAll(Map61B<String, Integer> map, String[] keys) {
+        Stopwatch sw = new Stopwatch();
+        int found = 0;
+        for (String key : keys) {
+            if (map.get(key) != null) {
+                found += 1;
+            }
+        }
+        double time = sw.elapsedTime();
+        if (found > keys.length) {
+            throw new AssertionError();
+        }
+        return time;
+    }
+}
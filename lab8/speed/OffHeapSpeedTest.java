@@ -0,0 +1,93 @@
+package speed;
+
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+import hashmap.MyHashMapOffHeap;
+
+/** Compares a java.util.HashMap of Strings with MyHashMapOffHeap holding the
+ *  same N entries: the time to insert and look them up, the heap each one
+ *  leaves in use, and the time a full collection takes with it alive.
+ *  Run with a heap big enough for the HashMap, e.g. java -Xmx4g.
+ *  @author tuysss
+ */
+public class OffHeapSpeedTest {
+
+    /**
+     * Requests user input and runs the comparison. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program puts N random key/value Strings into a HashMap"
+                + " and into\n MyHashMapOffHeap, and reports the time and memory each"
+                + " takes.\n");
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # entries to insert into each map: ");
+            int N = BucketsSpeedTest.waitForPositiveInt(input);
+            System.out.print("Enter the length of keys and values: ");
+            int L = BucketsSpeedTest.waitForPositiveInt(input);
+            String[] keys = new String[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+            }
+
+            long base = heapInUse();
+            Map<String, String> onHeap = new HashMap<>();
+            Stopwatch sw = new Stopwatch();
+            for (String key : keys) {
+                onHeap.put(key, key);
+            }
+            for (String key : keys) {
+                onHeap.get(key);
+            }
+            double time = sw.elapsedTime();
+            report("java.util.HashMap", time, heapInUse() - base, timeGc());
+            onHeap = null;
+
+            base = heapInUse();
+            try (MyHashMapOffHeap offHeap = new MyHashMapOffHeap()) {
+                sw = new Stopwatch();
+                for (String key : keys) {
+                    byte[] b = key.getBytes(StandardCharsets.UTF_8);
+                    offHeap.put(b, b);
+                }
+                for (String key : keys) {
+                    offHeap.get(key.getBytes(StandardCharsets.UTF_8));
+                }
+                time = sw.elapsedTime();
+                report("MyHashMapOffHeap", time, heapInUse() - base, timeGc());
+                System.out.println("  off heap: " + offHeap.footprint());
+            }
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    private static void report(String name, double time, long heap, double gc) {
+        System.out.printf("%s: %.2f sec, %.1f MiB more heap in use, "
+                + "full GC %.3f sec\n", name, time, heap / 1048576.0, gc);
+    }
+
+    /** Returns the bytes of heap in use after a collection. */
+    private static long heapInUse() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /** Returns the time a requested full collection takes. */
+    private static double timeGc() {
+        Stopwatch sw = new Stopwatch();
+        System.gc();
+        return sw.elapsedTime();
+    }
+}
@@ -0,0 +1,96 @@
+package speed;
+
+import java.util.Arrays;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMapLinearProbing;
+import hashmap.MyHashMapRobinHood;
+
+/** Compares get() latency of linear probing and Robin Hood hashing on a
+ *  table filled to a load factor of almost 0.9, and prints the Robin Hood
+ *  table's probe-length statistics.
+ *  @author tuysss
+ */
+public class ProbeLengthSpeedTest {
+    /** The load factor both tables are filled to. */
+    private static final double LOAD = 0.9;
+    /** Gets are timed in batches of this many, as single ones are too
+     *  short for the clock. */
+    private static final int BATCH = 64;
+
+    /**
+     * Requests user input and times gets on both tables. ARGS is unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program fills open-addressing maps with random "
+                + "Strings of length L\n"
+                + " to a load factor of " + LOAD + " and times hits and misses.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = BucketsSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter the table size (rounded up to a power of 2): ");
+            int tableSize = Integer.highestOneBit(BucketsSpeedTest.waitForPositiveInt(input));
+            tableSize = Math.max(tableSize, 2 * BATCH);
+            int N = (int) (tableSize * LOAD) - 1;
+
+            String[] present = new String[N];
+            String[] absent = new String[N];
+            for (int i = 0; i < N; i++) {
+                present[i] = StringUtils.randomString(L);
+                absent[i] = StringUtils.randomString(L) + "!";
+            }
+
+            MyHashMapRobinHood<String, Integer> robinHood =
+                    new MyHashMapRobinHood<>(tableSize, LOAD);
+            timeGets(new MyHashMapLinearProbing<>(tableSize, LOAD), present, absent);
+            timeGets(robinHood, present, absent);
+            System.out.printf("Robin Hood probe lengths: max %d, mean %.3f, histogram %s%n",
+                    robinHood.maxProbeLength(), robinHood.meanProbeLength(),
+                    Arrays.toString(robinHood.probeLengthHistogram()));
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /**
+     * Puts PRESENT into MAP, then prints the median, 99th percentile and
+     * maximum time per get() over batches of hits on PRESENT and of misses
+     * on ABSENT.
+     */
+    public static void timeGets(Map61B<String, Integer> map, String[] present,
+                                String[] absent) {
+        for (int i = 0; i < present.length; i++) {
+            map.put(present[i], i);
+        }
+        System.out.println(map.getClass() + ": " + map.size() + " items");
+        System.out.println("  hits:   " + percentiles(map, present));
+        System.out.println("  misses: " + percentiles(map, absent));
+    }
+
+    /** Returns the latency percentiles of getting KEYS from MAP. */
+    private static String percentiles(Map61B<String, Integer> map, String[] keys) {
+        int batches = keys.length / BATCH;
+        double[] nanos = new double[batches];
+        int found = 0;
+        for (int b = 0; b < batches; b++) {
+            long start = System.nanoTime();
+            for (int i = b * BATCH; i < (b + 1) * BATCH; i++) {
+                if (map.get(keys[i]) != null) {
+                    found += 1;
+                }
+            }
+            nanos[b] = (double) (System.nanoTime() - start) / BATCH;
+        }
+        Arrays.sort(nanos);
+        return String.format("p50 %.1f ns, p99 %.1f ns, max %.1f ns (%d found)",
+                nanos[batches / 2], nanos[(int) (batches * 0.99)],
+                nanos[batches - 1], found);
+    }
+}
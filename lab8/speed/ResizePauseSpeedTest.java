@@ -0,0 +1,67 @@
+package speed;
+
+import java.util.Arrays;
+import java.util.Scanner;
+
+import hashmap.Map61B;
+import hashmap.MyHashMap;
+
+/** Compares the put() latency of MyHashMap resizing all at once and
+ *  resizing incrementally. Total time is about the same; what differs is
+ *  the slowest puts, which with all-at-once resizing grow with the map.
+ *  Garbage collection pauses land on single puts too and can hide the
+ *  difference, so give the JVM a heap that holds the maps without
+ *  collecting, e.g. java -Xms3g -Xmx3g -Xmn2500m for a few million keys.
+ *  @author tuysss
+ */
+public class ResizePauseSpeedTest {
+
+    /**
+     * Requests user input and times every put into each map. ARGS is
+     * unused.
+     */
+    public static void main(String[] args) {
+        Scanner input = new Scanner(System.in);
+
+        System.out.println("\n This program inserts random "
+                + "Strings of length L\n"
+                + " into MyHashMaps that resize all at once or incrementally,\n"
+                + " timing each put.\n");
+        System.out.print("What would you like L to be?: ");
+        int L = BucketsSpeedTest.waitForPositiveInt(input);
+
+        String repeat = "y";
+        do {
+            System.out.print("\nEnter # strings to insert into each map: ");
+            int N = BucketsSpeedTest.waitForPositiveInt(input);
+            String[] keys = new String[N];
+            for (int i = 0; i < N; i++) {
+                keys[i] = StringUtils.randomString(L);
+            }
+
+            timePuts("all at once", new MyHashMap<>(), keys);
+            timePuts("incremental", new MyHashMap<>(16, 0.75, true), keys);
+
+            System.out.print("\nWould you like to try more timed-tests? (y/n)");
+            repeat = input.nextLine();
+        } while (!repeat.equalsIgnoreCase("n") && !repeat.equalsIgnoreCase("no"));
+        input.close();
+    }
+
+    /** Puts KEYS into MAP, and prints the total time and the median, 99.9th
+     *  percentile and maximum time of a put. */
+    public static void timePuts(String name, Map61B<String, Integer> map, String[] keys) {
+        long[] nanos = new long[keys.length];
+        long total = 0;
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            map.put(keys[i], i);
+            nanos[i] = System.nanoTime() - start;
+            total += nanos[i];
+        }
+        Arrays.sort(nanos);
+        System.out.printf("MyHashMap, %s: %.2f sec; put p50 %d ns, p99.9 %d ns, max %.2f ms\n",
+                name, total / 1e9, nanos[nanos.length / 2],
+                nanos[(int) (nanos.length * 0.999)], nanos[nanos.length - 1] / 1e6);
+    }
+}
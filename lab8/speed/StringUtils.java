@@ -27,6 +27,19 @@ public class StringUtils {
         return new String(someChars);
     }
 
+    /**
+     * Returns the Ith of 2^PAIRS strings of length 2 * PAIRS that all have
+     * the same hashCode(): each bit of I picks "Aa" or "BB", two strings that
+     * hash alike, for one pair.
+     */
+    public static String collidingString(long i, int pairs) {
+        StringBuilder sb = new StringBuilder(2 * pairs);
+        for (int k = 0; k < pairs; k++) {
+            sb.append(((i >>> k) & 1) == 0 ? "Aa" : "BB");
+        }
+        return sb.toString();
+    }
+
     /**
      * Returns true if string S consists of characters between
      * 'a' and 'z' only. No spaces, numbers, upper-case, or any other
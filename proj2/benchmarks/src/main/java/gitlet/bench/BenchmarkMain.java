@@ -0,0 +1,25 @@
+package gitlet.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Runs every gitlet benchmark with the GC profiler attached, so each
+ *  result carries its allocation rate (gc.alloc.rate.norm is bytes per
+ *  operation) next to its throughput. ARGS, if given, is a regular
+ *  expression selecting benchmarks, e.g. "ReadBenchmarks.log".
+ *
+ *  @author tuysss
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "gitlet\\.bench\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
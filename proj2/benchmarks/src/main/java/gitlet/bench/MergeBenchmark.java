@@ -0,0 +1,98 @@
+package gitlet.bench;
+
+import gitlet.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Merging a diverged branch. A merge consumes its repository, so each
+ *  invocation runs on a fresh copy of a template in which "feature" and
+ *  master have each rewritten a disjoint half of the files since they
+ *  split. Measured as single shots, since one merge is the unit of work.
+ *
+ *  @author tuysss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 20, batchSize = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+    @Param({"100"})
+    public int commits;
+
+    @Param({"100", "1000"})
+    public int files;
+
+    @Param({"1"})
+    public int branches;
+
+    /** Commits made on each side after the split. */
+    @Param({"10"})
+    public int divergence;
+
+    private Path template;
+    private Path dir;
+    private Repository repo;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        template = SyntheticRepo.create(commits, files, branches);
+        Repository seed = new Repository(template.toString());
+        out = SyntheticRepo.silence();
+        seed.branch("feature");
+        diverge(seed, template, 0);
+        seed.checkoutBranch("feature");
+        diverge(seed, template, 1);
+        seed.checkoutBranch("master");
+    }
+
+    /** Commit DIVERGENCE edits to the files whose index has parity SIDE. */
+    private void diverge(Repository r, Path root, int side) {
+        for (int c = 0; c < divergence; c++) {
+            String name = SyntheticRepo.fileName((2 * c + side) % files);
+            SyntheticRepo.write(root, name, "side " + side + " edit " + c);
+            r.add(name);
+            r.commit("side " + side + " edit " + c);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+        SyntheticRepo.delete(template);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyTemplate() {
+        dir = SyntheticRepo.copy(template);
+        repo = new Repository(dir.toString());
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteCopy() {
+        SyntheticRepo.delete(dir);
+    }
+
+    @Benchmark
+    public void merge() {
+        repo.merge("feature");
+    }
+}
@@ -0,0 +1,75 @@
+package gitlet.bench;
+
+import gitlet.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Commands that only read the repository: log, status and find. They
+ *  share one synthetic repository per trial.
+ *
+ *  @author tuysss
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadBenchmarks {
+
+    @Param({"100", "1000"})
+    public int commits;
+
+    @Param({"100"})
+    public int files;
+
+    @Param({"8"})
+    public int branches;
+
+    private Path dir;
+    private Repository repo;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = SyntheticRepo.create(commits, files, branches);
+        repo = new Repository(dir.toString());
+        out = SyntheticRepo.silence();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+        SyntheticRepo.delete(dir);
+    }
+
+    @Benchmark
+    public void log() {
+        repo.log();
+    }
+
+    @Benchmark
+    public void status() {
+        repo.status();
+    }
+
+    @Benchmark
+    public void find() {
+        repo.find("seed");
+    }
+}
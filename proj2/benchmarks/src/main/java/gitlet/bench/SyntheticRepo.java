@@ -0,0 +1,148 @@
+package gitlet.bench;
+
+import gitlet.Repository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/** Builds throwaway gitlet repositories in temporary directories.
+ *
+ *  A synthetic repository has FILES tracked files, and a first-parent
+ *  history of COMMITS commits in which each commit rewrites one file, in
+ *  round-robin order. BRANCHES branches named "branch-0", "branch-1", ...
+ *  are created at evenly spaced points along that history, so they point
+ *  at different commits.
+ *
+ *  @author tuysss
+ */
+final class SyntheticRepo {
+
+    private SyntheticRepo() {
+    }
+
+    /** Create a repository as described above and return its root. */
+    static Path create(int commits, int files, int branches) {
+        Path dir = tempDir();
+        Repository repo = new Repository(dir.toString());
+        PrintStream out = silence();
+        try {
+            repo.init();
+            for (int f = 0; f < files; f++) {
+                write(dir, fileName(f), "seed " + f);
+                repo.add(fileName(f));
+            }
+            repo.commit("seed");
+            int spacing = Math.max(1, commits / Math.max(1, branches));
+            int created = 0;
+            for (int c = 1; c < commits; c++) {
+                String name = fileName(c % files);
+                write(dir, name, "commit " + c + " of " + name);
+                repo.add(name);
+                repo.commit("commit " + c);
+                if (created < branches && c % spacing == 0) {
+                    repo.branch("branch-" + created);
+                    created++;
+                }
+            }
+            while (created < branches) {
+                repo.branch("branch-" + created);
+                created++;
+            }
+        } finally {
+            System.setOut(out);
+        }
+        return dir;
+    }
+
+    /** Name of the Ith tracked file. */
+    static String fileName(int i) {
+        return "file-" + i + ".txt";
+    }
+
+    /** Write CONTENT to NAME below DIR. */
+    static void write(Path dir, String name, String content) {
+        try {
+            Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+
+    /** Returns a fresh copy of the repository at FROM. */
+    static Path copy(Path from) {
+        Path to = tempDir();
+        try {
+            Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir,
+                        BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(to.resolve(from.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file,
+                        BasicFileAttributes attrs) throws IOException {
+                    Files.copy(file, to.resolve(from.relativize(file)),
+                               StandardCopyOption.REPLACE_EXISTING);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+        return to;
+    }
+
+    /** Recursively delete DIR. */
+    static void delete(Path dir) {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file,
+                        BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path d,
+                        IOException exc) throws IOException {
+                    Files.delete(d);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+
+    /** Point System.out at a sink, so commands that print (log, status,
+     *  merge) are measured without terminal I/O. Returns the previous
+     *  stream, to be restored with System.setOut. */
+    static PrintStream silence() {
+        PrintStream old = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return old;
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("gitlet-bench");
+        } catch (IOException excp) {
+            throw new UncheckedIOException(excp);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package gitlet.bench;
+
+import gitlet.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** add and commit on a synthetic repository. Every invocation rewrites one
+ *  tracked file with new content first, so add always stages a new blob and
+ *  commit always has something to commit. The repository keeps growing over
+ *  the trial, as a real one would.
+ *
+ *  @author tuysss
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmarks {
+
+    @Param({"100"})
+    public int commits;
+
+    @Param({"100", "1000"})
+    public int files;
+
+    @Param({"1"})
+    public int branches;
+
+    private Path dir;
+    private Repository repo;
+    private PrintStream out;
+    /** Number of edits so far; makes every edit's content unique. */
+    private long edits;
+    /** The file edited by the current invocation. */
+    private String current;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dir = SyntheticRepo.create(commits, files, branches);
+        repo = new Repository(dir.toString());
+        out = SyntheticRepo.silence();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+        SyntheticRepo.delete(dir);
+    }
+
+    @Setup(Level.Invocation)
+    public void edit() {
+        current = SyntheticRepo.fileName((int) (edits % files));
+        SyntheticRepo.write(dir, current, "edit " + edits);
+        edits++;
+    }
+
+    @Benchmark
+    public void add() {
+        repo.add(current);
+    }
+
+    @Benchmark
+    public void addAndCommit() {
+        repo.add(current);
+        repo.commit("edit " + edits);
+    }
+}
@@ -0,0 +1,173 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static gitlet.Utils.*;
+
+/** Line attribution for `gitlet blame [file name]`.
+ *
+ *  Starting at a commit, history is walked along first parents, except
+ *  where a merge took the file unchanged from another parent: the walk
+ *  follows that one, so lines are credited to the commit on the merged
+ *  branch that wrote them rather than to the merge. Runs of
+ *  commits that carry the same blob for the file are skipped without
+ *  reading any content; where the blob changes, the two versions are
+ *  diffed with LineDiff and the lines the newer version kept inherit the
+ *  attribution of the older one, while the rest belong to the commit that
+ *  introduced them. Lines are those of the file's content, large-file
+ *  pointers being followed to it.
+ *
+ *  The answer for a (blob id, commit id) pair never changes, so every
+ *  result computed along the way is cached in .gitlet/blame as one commit
+ *  id per line. A later blame stops walking at the first cached pair, which
+ *  makes repeated blames of a busy file cost one diff per new revision.
+ *
+ *  @author tuysss
+ */
+class Blame {
+
+    private final Repository repo;
+    /** Directory of cached attributions, named BLOBID-COMMITID. */
+    private final File cacheDir;
+
+    Blame(Repository repo) {
+        this.repo = repo;
+        this.cacheDir = join(repo.GITLET_DIR, "blame");
+    }
+
+    /** Print, for each line of FILENAME as of the head commit, the id of the
+     *  commit that last changed it. */
+    void blame(String filename) {
+        Commit head = repo.getCommitFromId(repo.getHeadCommitId());
+        ObjectId blobId = head.getBlobs().get(filename);
+        if (blobId == null) {
+            repo.exit("File does not exist in that commit.");
+        }
+        String[] lines = LineDiff.lines(content(blobId));
+        ObjectId[] owners = attribute(head, filename);
+
+        StringBuilder sb = new StringBuilder();
+        int width = String.valueOf(lines.length).length();
+        for (int i = 0; i < lines.length; i++) {
+            sb.append(owners[i].abbreviate(8)).append(' ');
+            sb.append(String.format("%" + width + "d", i + 1)).append(") ");
+            sb.append(lines[i]).append('\n');
+        }
+        System.out.print(sb);
+    }
+
+    /** Returns the id of the commit responsible for each line of FILENAME
+     *  as of commit START, which must track FILENAME. */
+    ObjectId[] attribute(Commit start, String filename) {
+        // Walk back to the nearest cached result or to the commit that
+        // created the file, remembering where the blob changed.
+        List<Commit> changes = new ArrayList<>();
+        ObjectId[] base = null;
+        Commit commit = start;
+        ObjectId blobId = start.getBlobs().get(filename);
+        while (true) {
+            base = readCache(blobId, commit.getId());
+            if (base != null) {
+                break;
+            }
+            Commit parent = parentToFollow(commit, filename, blobId);
+            ObjectId parentBlobId = parent == null
+                    ? null : parent.getBlobs().get(filename);
+            if (!blobId.equals(parentBlobId)) {
+                changes.add(commit);
+                if (parentBlobId == null) {
+                    break;
+                }
+                blobId = parentBlobId;
+            }
+            commit = parent;
+        }
+
+        // Replay the changes oldest first.
+        ObjectId[] owners = base;
+        String[] prevLines = base == null ? null
+                : LineDiff.lines(content(blobId));
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Commit change = changes.get(i);
+            ObjectId changeBlobId = change.getBlobs().get(filename);
+            String[] lines = LineDiff.lines(content(changeBlobId));
+            ObjectId[] next = new ObjectId[lines.length];
+            if (owners == null) {
+                Arrays.fill(next, change.getId());
+            } else {
+                int[] kept = LineDiff.match(prevLines, lines);
+                for (int j = 0; j < lines.length; j++) {
+                    next[j] = kept[j] < 0 ? change.getId() : owners[kept[j]];
+                }
+            }
+            writeCache(changeBlobId, change.getId(), next);
+            owners = next;
+            prevLines = lines;
+        }
+        ObjectId startBlobId = start.getBlobs().get(filename);
+        if (readCache(startBlobId, start.getId()) == null) {
+            writeCache(startBlobId, start.getId(), owners);
+        }
+        return owners;
+    }
+
+    /** The parent of COMMIT to walk on to from the version BLOBID of
+     *  FILENAME: the first parent, unless it has another version and some
+     *  other parent has this one. Null if COMMIT has no parent. */
+    private Commit parentToFollow(Commit commit, String filename,
+                                  ObjectId blobId) {
+        Commit first = repo.getCommitFromId(commit.getFirstParentId());
+        if (first != null && blobId.equals(first.getBlobs().get(filename))) {
+            return first;
+        }
+        List<ObjectId> parents = commit.getParents();
+        for (int i = 1; i < parents.size(); i++) {
+            Commit parent = repo.getCommitFromId(parents.get(i));
+            if (parent != null
+                    && blobId.equals(parent.getBlobs().get(filename))) {
+                return parent;
+            }
+        }
+        return first;
+    }
+
+    /** The content of the blob BLOBID, or of the large file it points to. */
+    private byte[] content(ObjectId blobId) {
+        return repo.largeFiles().read(repo.getBlobFromBlobId(blobId));
+    }
+
+    private ObjectId[] readCache(ObjectId blobId, ObjectId commitId) {
+        File file = join(cacheDir, blobId + "-" + commitId);
+        if (!file.isFile()) {
+            return null;
+        }
+        String text = readContentsAsString(file);
+        if (text.isEmpty()) {
+            return new ObjectId[0];
+        }
+        String[] ids = text.split("\n");
+        ObjectId[] res = new ObjectId[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            res[i] = ObjectId.fromHex(ids[i]);
+        }
+        return res;
+    }
+
+    private void writeCache(ObjectId blobId, ObjectId commitId,
+                            ObjectId[] owners) {
+        if (!cacheDir.isDirectory()) {
+            cacheDir.mkdir();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ObjectId owner : owners) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(owner);
+        }
+        writeContents(join(cacheDir, blobId + "-" + commitId), sb.toString());
+    }
+}
@@ -7,9 +7,12 @@ import static gitlet.Utils.*;
 /**
  *  represent a file object.
  */
-public class Blob implements Serializable {
+public class Blob implements Serializable, Dumpable {
+    /** Fixed, so that edits to this class keep .gitlet readable. */
+    private static final long serialVersionUID = 2886204173313767721L;
+
     private String filename;
-    private String id;
+    private ObjectId id;
     private byte[] content;
     private File sourceFile;
 
@@ -18,13 +21,31 @@ public class Blob implements Serializable {
         this.sourceFile= join(CWD, filename);
         if (sourceFile.exists()) {
             this.content = readContents(sourceFile);
-            this.id = sha1(filename, content);
+            this.id = sha1Id(filename, content);
         } else {
             this.content = null;
-            this.id = sha1(filename);
+            this.id = sha1Id(filename);
         }
     }
 
+    /**
+     * A blob of the working file FILENAME that stores CONTENT in place of the
+     * file's own bytes, e.g. a large-file pointer.
+     */
+    Blob(String filename, File CWD, byte[] content) {
+        this.filename = filename;
+        this.sourceFile = join(CWD, filename);
+        this.content = content;
+        this.id = sha1Id(filename, content);
+    }
+
+    /**
+     * The id this blob's contents hash to, for checking a stored blob.
+     */
+    ObjectId computeId() {
+        return content == null ? sha1Id(filename) : sha1Id(filename, content);
+    }
+
     public boolean exists(){
         return this.content!=null;
     }
@@ -37,12 +58,18 @@ public class Blob implements Serializable {
         return filename;
     }
 
-    public String getId() {
+    public ObjectId getId() {
         return id;
     }
 
     public byte[] getContent() {
         return content;
     }
+
+    @Override
+    public void dump() {
+        System.out.printf("blob %s%nfile: %s%nsize: %d%n", id, filename,
+                content == null ? 0 : content.length);
+    }
 }
 
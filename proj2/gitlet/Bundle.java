@@ -0,0 +1,418 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static gitlet.Utils.*;
+
+/** `gitlet bundle`: a repository's history packed into a single file.
+ *
+ *  A bundle is written and read front to back in one pass:
+ *
+ *      header   "gitlet bundle v1\n"
+ *      body     one deflate stream holding the stored bytes of every
+ *               object, back to back, exactly as they sit in .gitlet
+ *      index    per object: kind, raw id, length and CRC-32 of its bytes,
+ *               in body order; then the bundled branches and their tips
+ *      trailer  offset of the index, then "GLBI"
+ *
+ *  Besides commits and blobs, the objects include the content of every
+ *  large-file pointer among the blobs (see LargeFiles), keyed by its
+ *  SHA-1, so that the large files can be checked out after unbundling.
+ *  Its length in the index is a long, since large files may pass 2 GiB,
+ *  and it is streamed between the body and .gitlet/lfs/objects through a
+ *  fixed buffer, never held in memory whole.
+ *
+ *  The index comes last so that create() never has to hold the objects or
+ *  seek back; unbundle() reads the trailer and index first, then inflates
+ *  the body sequentially, checks each object against its CRC and writes
+ *  the ones this repository lacks, once they have been decoded and found
+ *  to hash to the id the index gives them. Bundled branch names must be
+ *  plain names; a bundle naming a branch "../x" is refused, so it cannot
+ *  write outside refs/heads. Copying a repository therefore costs
+ *  one large sequential file instead of one small file per object.
+ *
+ *  @author tuysss
+ */
+class Bundle {
+
+    private static final byte[] HEADER =
+        "gitlet bundle v1\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRAILER =
+        "GLBI".getBytes(StandardCharsets.US_ASCII);
+    private static final int TRAILER_LENGTH = Long.BYTES + 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte COMMIT = 0;
+    private static final byte BLOB = 1;
+    /** The content a large-file pointer blob points to. */
+    private static final byte LARGE = 2;
+
+    /** One object in the body. */
+    private static class Entry {
+        final byte kind;
+        final ObjectId id;
+        final long length;
+        final int crc;
+
+        Entry(byte kind, ObjectId id, long length, int crc) {
+            this.kind = kind;
+            this.id = id;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    private final Repository repo;
+
+    Bundle(Repository repo) {
+        this.repo = repo;
+    }
+
+    /** Write to FILE every commit and blob reachable from the branches
+     *  named in BRANCHES, or from all branches if BRANCHES is empty. */
+    void create(File file, List<String> branches) {
+        Map<String, ObjectId> refs = new LinkedHashMap<>();
+        if (branches.isEmpty()) {
+            branches = plainFilenamesIn(repo.HEADS_DIR);
+        }
+        for (String branch : branches) {
+            File ref = join(repo.HEADS_DIR, branch);
+            if (!ref.isFile()) {
+                repo.exit("A branch with that name does not exist.");
+            }
+            refs.put(branch, ObjectId.fromHex(readContentsAsString(ref)));
+        }
+
+        List<Entry> index = new ArrayList<>();
+        Deflater deflater = new Deflater();
+        Trace.Phase phase = Trace.phase("bundle.write");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            BufferedOutputStream raw =
+                new BufferedOutputStream(out, BUFFER_SIZE);
+            raw.write(HEADER);
+            DeflaterOutputStream body =
+                new DeflaterOutputStream(raw, deflater, BUFFER_SIZE);
+
+            Set<ObjectId> seen = new HashSet<>();
+            Deque<ObjectId> pending = new ArrayDeque<>(refs.values());
+            while (!pending.isEmpty()) {
+                ObjectId id = pending.pop();
+                if (!seen.add(id)) {
+                    continue;
+                }
+                byte[] bytes = readContents(join(repo.COMMITS_DIR,
+                                                 id.toString()));
+                Commit commit = deserialize(bytes, Commit.class);
+                for (ObjectId blob : commit.getBlobs().values()) {
+                    if (seen.add(blob)) {
+                        byte[] blobBytes = readContents(repo.getBlobFile(blob));
+                        append(body, index, BLOB, blob, blobBytes);
+                        appendLarge(body, index, seen, blobBytes);
+                    }
+                }
+                append(body, index, COMMIT, id, bytes);
+                if (!repo.getShallowCommits().contains(id)) {
+                    pending.addAll(commit.getParents());
+                }
+            }
+            body.finish();
+            raw.flush();
+            long indexStart = out.getChannel().position();
+
+            DataOutputStream tail = new DataOutputStream(raw);
+            tail.writeInt(index.size());
+            for (Entry e : index) {
+                tail.writeByte(e.kind);
+                tail.write(e.id.toRaw());
+                if (e.kind == LARGE) {
+                    tail.writeLong(e.length);
+                } else {
+                    tail.writeInt((int) e.length);
+                }
+                tail.writeInt(e.crc);
+            }
+            tail.writeInt(refs.size());
+            for (Map.Entry<String, ObjectId> e : refs.entrySet()) {
+                tail.writeUTF(e.getKey());
+                tail.write(e.getValue().toRaw());
+            }
+            tail.writeLong(indexStart);
+            tail.write(TRAILER);
+            tail.flush();
+        } catch (IOException excp) {
+            throw error("Cannot write bundle: %s", excp.getMessage());
+        } finally {
+            phase.end();
+            deflater.end();
+        }
+        System.out.printf("Bundled %d objects from %d branches.%n",
+                          index.size(), refs.size());
+    }
+
+    private static void append(DeflaterOutputStream body, List<Entry> index,
+                               byte kind, ObjectId id, byte[] bytes)
+            throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        body.write(bytes);
+        index.add(new Entry(kind, id, bytes.length, (int) crc.getValue()));
+    }
+
+    /** If BLOBBYTES is a stored large-file pointer, append the content it
+     *  points to, unless SEEN shows it is in the bundle already. The
+     *  content is copied through a fixed buffer. */
+    private void appendLarge(DeflaterOutputStream body, List<Entry> index,
+                             Set<ObjectId> seen, byte[] blobBytes)
+            throws IOException {
+        if (!repo.LFS_DIR.isDirectory()) {
+            // No large file was ever committed or fetched here.
+            return;
+        }
+        ObjectId oid = LargeFiles.pointee(deserialize(blobBytes, Blob.class));
+        if (oid == null || !seen.add(oid)) {
+            return;
+        }
+        File content = repo.largeFiles().content(oid);
+        CRC32 crc = new CRC32();
+        long length = 0;
+        try (InputStream in = new FileInputStream(content)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                crc.update(buf, 0, n);
+                body.write(buf, 0, n);
+                length += n;
+            }
+        }
+        Trace.read(length);
+        index.add(new Entry(LARGE, oid, length, (int) crc.getValue()));
+    }
+
+    /** Copy the objects in bundle FILE that this repository lacks into it,
+     *  then create each bundled branch that does not exist here yet.
+     *  Existing branches are left alone. */
+    void unbundle(File file) {
+        if (!file.isFile()) {
+            repo.exit("Bundle does not exist.");
+        }
+        List<Entry> index = new ArrayList<>();
+        Map<String, ObjectId> refs = new LinkedHashMap<>();
+        readIndex(file, index, refs);
+        for (String name : refs.keySet()) {
+            if (!isBranchName(name)) {
+                repo.exit("Bundle has an invalid branch name.");
+            }
+        }
+
+        Set<String> commits = new HashSet<>(plainFilenamesIn(repo.COMMITS_DIR));
+        Set<String> blobs = new HashSet<>(plainFilenamesIn(repo.BLOBS_DIR));
+        int written = 0;
+        Inflater inflater = new Inflater();
+        Trace.Phase phase = Trace.phase("bundle.read");
+        try (InputStream in = new FileInputStream(file)) {
+            in.skipNBytes(HEADER.length);
+            DataInputStream body = new DataInputStream(new InflaterInputStream(
+                new BufferedInputStream(in, BUFFER_SIZE), inflater,
+                BUFFER_SIZE));
+            byte[] buf = new byte[BUFFER_SIZE];
+            CRC32 crc = new CRC32();
+            for (Entry e : index) {
+                crc.reset();
+                if (e.kind == LARGE) {
+                    boolean have = repo.largeFiles().has(e.id);
+                    if (!receiveLarge(body, e, have, buf, crc)) {
+                        repo.exit("Bundle is corrupt.");
+                    }
+                    if (!have) {
+                        written += 1;
+                    }
+                    continue;
+                }
+                int length = (int) e.length;
+                if (buf.length < length) {
+                    buf = new byte[Math.max(length, 2 * buf.length)];
+                }
+                body.readFully(buf, 0, length);
+                crc.update(buf, 0, length);
+                if ((int) crc.getValue() != e.crc) {
+                    repo.exit("Bundle is corrupt.");
+                }
+                String name = e.id.toString();
+                Set<String> have = e.kind == COMMIT ? commits : blobs;
+                if (!have.contains(name)) {
+                    if (!hashesTo(e, buf)) {
+                        repo.exit("Bundle is corrupt.");
+                    }
+                    have.add(name);
+                    File dir = e.kind == COMMIT ? repo.COMMITS_DIR
+                                                : repo.BLOBS_DIR;
+                    try (FileOutputStream out =
+                             new FileOutputStream(join(dir, name))) {
+                        out.write(buf, 0, length);
+                    }
+                    Trace.wrote(length);
+                    written += 1;
+                }
+            }
+        } catch (EOFException excp) {
+            repo.exit("Bundle is corrupt.");
+        } catch (IOException excp) {
+            throw error("Cannot read bundle: %s", excp.getMessage());
+        } finally {
+            phase.end();
+            inflater.end();
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ObjectId> e : refs.entrySet()) {
+            File branch = join(repo.HEADS_DIR, e.getKey());
+            sb.append(e.getValue()).append(' ').append(e.getKey());
+            if (!branch.exists()) {
+                writeContents(branch, e.getValue().toString());
+            } else if (!e.getValue().toString()
+                           .equals(readContentsAsString(branch))) {
+                sb.append(" (branch exists; not updated)");
+            }
+            sb.append('\n');
+        }
+        sb.append(String.format("Unbundled %d objects, %d new.%n",
+                                index.size(), written));
+        System.out.print(sb);
+    }
+
+    /** Read the large-file content of E from BODY, BUF.length bytes at a
+     *  time, into the large-file store, or with SKIP only past it. Returns
+     *  true iff it matched E's CRC and, unless skipped, hashed to E's id;
+     *  content that does not is not kept. */
+    private boolean receiveLarge(DataInputStream body, Entry e, boolean skip,
+                                 byte[] buf, CRC32 crc) throws IOException {
+        MessageDigest md = sha1Digest();
+        File tmp = skip ? null : repo.largeFiles().tempFile();
+        try {
+            try (OutputStream out = skip ? OutputStream.nullOutputStream()
+                                         : new FileOutputStream(tmp)) {
+                for (long left = e.length; left > 0;) {
+                    int n = (int) Math.min(buf.length, left);
+                    body.readFully(buf, 0, n);
+                    crc.update(buf, 0, n);
+                    md.update(buf, 0, n);
+                    out.write(buf, 0, n);
+                    left -= n;
+                }
+            }
+            if ((int) crc.getValue() != e.crc) {
+                return false;
+            }
+            if (skip) {
+                return true;
+            }
+            if (!e.id.equals(ObjectId.fromRaw(md.digest()))) {
+                return false;
+            }
+            repo.largeFiles().keep(tmp, e.id);
+            tmp = null;
+            return true;
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /** Returns true iff the first E.length bytes of BUF hold the object of
+     *  E, decoded, with E's id as both its stored and its recomputed id. */
+    private static boolean hashesTo(Entry e, byte[] buf) {
+        byte[] bytes = Arrays.copyOf(buf, (int) e.length);
+        try {
+            if (e.kind == COMMIT) {
+                Commit commit = deserialize(bytes, Commit.class);
+                return e.id.equals(commit.getId())
+                    && e.id.equals(commit.computeId());
+            }
+            Blob blob = deserialize(bytes, Blob.class);
+            return e.id.equals(blob.getId()) && e.id.equals(blob.computeId());
+        } catch (IllegalArgumentException | ClassCastException excp) {
+            return false;
+        }
+    }
+
+    /** Returns true iff NAME can name a file directly in refs/heads. */
+    private static boolean isBranchName(String name) {
+        return !name.isEmpty() && !name.equals(".") && !name.contains("..")
+            && name.indexOf('/') < 0 && name.indexOf('\\') < 0;
+    }
+
+    /** Read the index of bundle FILE into INDEX and REFS. */
+    private void readIndex(File file, List<Entry> index,
+                           Map<String, ObjectId> refs) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] header = new byte[HEADER.length];
+            byte[] trailer = new byte[TRAILER.length];
+            if (raf.length() < HEADER.length + TRAILER_LENGTH) {
+                repo.exit("Not a gitlet bundle.");
+            }
+            raf.readFully(header);
+            raf.seek(raf.length() - TRAILER_LENGTH);
+            long indexStart = raf.readLong();
+            raf.readFully(trailer);
+            if (!Arrays.equals(header, HEADER)
+                    || !Arrays.equals(trailer, TRAILER)
+                    || indexStart < HEADER.length
+                    || indexStart > raf.length() - TRAILER_LENGTH) {
+                repo.exit("Not a gitlet bundle.");
+            }
+            raf.seek(indexStart);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(raf.getChannel()), BUFFER_SIZE));
+            byte[] raw = new byte[ObjectId.RAW_LENGTH];
+            for (int n = in.readInt(); n > 0; n--) {
+                byte kind = in.readByte();
+                in.readFully(raw);
+                long length = kind == LARGE ? in.readLong() : in.readInt();
+                Entry e = new Entry(kind, ObjectId.fromRaw(raw), length,
+                                    in.readInt());
+                if ((kind != COMMIT && kind != BLOB && kind != LARGE)
+                        || e.length < 0) {
+                    repo.exit("Bundle is corrupt.");
+                }
+                index.add(e);
+            }
+            for (int n = in.readInt(); n > 0; n--) {
+                String name = in.readUTF();
+                in.readFully(raw);
+                refs.put(name, ObjectId.fromRaw(raw));
+            }
+        } catch (EOFException excp) {
+            repo.exit("Bundle is corrupt.");
+        } catch (IOException excp) {
+            throw error("Cannot read bundle: %s", excp.getMessage());
+        }
+    }
+}
@@ -13,13 +13,16 @@ import static gitlet.Utils.*;
  * Represents a gitlet commit object.
  * A Commit is a snapshot of the entire project at one point.
  */
-public class Commit implements Serializable{
+public class Commit implements Serializable, Dumpable {
+    /** Fixed, so that edits to this class keep .gitlet readable. */
+    private static final long serialVersionUID = -5588169407874697086L;
+
     private String message;
-    private List<String> parents;
+    private List<ObjectId> parents;
     private Date timestamp;
     /** The files this Commit tracks. filename-id.*/
-    private Map<String,String> blobs;
-    private String id;
+    private Map<String,ObjectId> blobs;
+    private ObjectId id;
 
     /**
      *  invoked by "init" command
@@ -29,7 +32,7 @@ public class Commit implements Serializable{
         this.parents=new ArrayList<>();
         this.timestamp=new Date(0);
         this.blobs=new HashMap<>();
-        this.id=sha1(message,timestamp.toString());
+        this.id=computeId();
     }
 
     /**
@@ -46,17 +49,38 @@ public class Commit implements Serializable{
             this.parents.add(parent.getId());
         }
         this.blobs=parents.get(0).getBlobs();
-        for (Map.Entry<String, String> entry : stage.getAdded().entrySet()) {
+        for (Map.Entry<String, ObjectId> entry : stage.getAdded().entrySet()) {
             String filename=entry.getKey();
-            String blobId=entry.getValue();
+            ObjectId blobId=entry.getValue();
             blobs.put(filename,blobId);
         }
         for (String filename : stage.getRemoved()) {
             blobs.remove(filename);
         }
-        this.id = sha1(message, timestamp.toString(), parents.toString(), blobs.toString());
+        this.id = computeId();
+    }
+
+    /**
+     *  A commit of the snapshot BLOBS with the given PARENTS, built without
+     *  a stage, e.g. by MergeEngine.
+     */
+    public Commit(String message, List<ObjectId> parents, Map<String, ObjectId> blobs){
+        this.message=message;
+        this.parents=new ArrayList<>(parents);
+        this.timestamp=new Date();
+        this.blobs=blobs;
+        this.id = computeId();
     }
 
+    /**
+     * The id this commit's contents hash to: its message, time, parent ids and
+     * tracked files in name order. Independent of the time zone and of map
+     * iteration order, so it can be recomputed from a stored commit (fsck).
+     */
+    ObjectId computeId() {
+        return sha1Id(message, Long.toString(timestamp.getTime()),
+                parents.toString(), new TreeMap<>(blobs).toString());
+    }
 
     public String getTimestampAsString() {
         // Thu Nov 9 20:00:05 2017 -0800
@@ -69,7 +93,7 @@ public class Commit implements Serializable{
         return message;
     }
 
-    public List<String> getParents() {
+    public List<ObjectId> getParents() {
         return parents;
     }
 
@@ -77,11 +101,11 @@ public class Commit implements Serializable{
         return timestamp;
     }
 
-    public Map<String, String> getBlobs() {
+    public Map<String, ObjectId> getBlobs() {
         return blobs;
     }
 
-    public String getId() {
+    public ObjectId getId() {
         return id;
     }
 
@@ -90,16 +114,34 @@ public class Commit implements Serializable{
         sb.append("===\n");
         sb.append("commit " + this.id + "\n");
         if (parents.size() == 2) {
-            sb.append("Merge: " + parents.get(0).substring(0, 7) + " " + parents.get(1).substring(0, 7) + "\n");
+            sb.append("Merge: " + parents.get(0).abbreviate(7) + " " + parents.get(1).abbreviate(7) + "\n");
         }
         sb.append("Date: " + this.getTimestampAsString() + "\n");
         sb.append(this.message + "\n\n");
         return sb.toString();
     }
 
-    public String getFirstParentId(){
+    /**
+     * A copy of this commit with no parents but the same id, standing in for
+     * it where a shallow fetch cut the history off.
+     */
+    Commit graft() {
+        Commit res = new Commit(message, List.of(), blobs);
+        res.timestamp = timestamp;
+        res.id = id;
+        return res;
+    }
+
+    @Override
+    public void dump() {
+        System.out.printf("commit %s%nparents: %s%ndate: %s%nmessage: %s%nfiles: %s%n",
+                id, parents, getTimestampAsString(), message, new TreeMap<>(blobs));
+    }
+
+    /** Returns the id of the first parent, or null for the initial commit. */
+    public ObjectId getFirstParentId(){
         if(parents.isEmpty()){
-            return "null";
+            return null;
         }
         return parents.get(0);
     }
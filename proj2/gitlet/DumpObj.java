@@ -1,6 +1,18 @@
 package gitlet;
 
 import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import static gitlet.Utils.*;
 
 /** A debugging class whose main program may be invoked as follows:
  *      java gitlet.DumpObj FILE...
@@ -25,13 +37,34 @@ import java.io.File;
  *
  *  As illustrated, your dump method should print useful information from
  *  objects of your class.
+ *
+ *  Two more forms inspect many objects at once:
+ *      java gitlet.DumpObj --json FILE_OR_DIR...
+ *  prints one JSON line per object file (directories are expanded, so
+ *  ".gitlet/commits" dumps every commit): its type, id, size on disk,
+ *  deflated size and the ids it refers to.
+ *      java gitlet.DumpObj --summary [GITLET_DIR]
+ *  prints one JSON line summing up a repository (default ".gitlet"):
+ *  object counts and sizes by type and its largest blobs.
+ *  Both decode the objects on all cores, one object per worker at a time.
  *  @author P. N. Hilfinger
  */
 public class DumpObj {
 
+    /** How many of the largest blobs --summary reports. */
+    private static final int LARGEST = 10;
+
     /** Deserialize and apply dump to the contents of each of the files
      *  in FILES. */
     public static void main(String... files) {
+        if (files.length > 0 && files[0].equals("--json")) {
+            json(Arrays.asList(files).subList(1, files.length));
+            return;
+        }
+        if (files.length > 0 && files[0].equals("--summary")) {
+            summary(new File(files.length > 1 ? files[1] : ".gitlet"));
+            return;
+        }
         for (String fileName : files) {
             Dumpable obj = Utils.readObject(new File(fileName),
                                             Dumpable.class);
@@ -39,5 +72,185 @@ public class DumpObj {
             System.out.println("---");
         }
     }
-}
 
+    /** What one object file holds. */
+    private static class Info {
+        final File file;
+        String type;
+        String id;
+        long size;
+        long compressed;
+        /** Blob: tracked file name; commit: message. */
+        String name;
+        /** The ids this object refers to. */
+        final List<String> refs = new ArrayList<>();
+        String error;
+
+        Info(File file) {
+            this.file = file;
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"file\":").append(jsonQuote(file.getPath()));
+            if (error != null) {
+                sb.append(",\"error\":").append(jsonQuote(error)).append('}');
+                return sb.toString();
+            }
+            sb.append(",\"type\":").append(jsonQuote(type));
+            if (id != null) {
+                sb.append(",\"id\":").append(jsonQuote(id));
+            }
+            sb.append(",\"size\":").append(size);
+            sb.append(",\"compressedSize\":").append(compressed);
+            if (name != null) {
+                sb.append(type.equals("commit") ? ",\"message\":" : ",\"name\":")
+                    .append(jsonQuote(name));
+            }
+            sb.append(",\"refs\":[");
+            for (int i = 0; i < refs.size(); i++) {
+                sb.append(i == 0 ? "" : ",").append(jsonQuote(refs.get(i)));
+            }
+            return sb.append("]}").toString();
+        }
+    }
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+        ThreadLocal.withInitial(Deflater::new);
+
+    /** Print a JSON line for every object file in or below PATHS. */
+    private static void json(List<String> paths) {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            collect(new File(path), files);
+        }
+        files.parallelStream()
+            .map(f -> decode(f).toJson())
+            .forEachOrdered(System.out::println);
+    }
+
+    /** Print the summary of the repository in GITLETDIR. */
+    private static void summary(File gitletDir) {
+        List<File> files = new ArrayList<>();
+        for (String sub : new String[] {"commits", "blobs", "staging"}) {
+            collect(new File(gitletDir, sub), files);
+        }
+        List<Info> infos = files.parallelStream().map(DumpObj::decode)
+            .collect(Collectors.toList());
+
+        Map<String, long[]> byType = new TreeMap<>();
+        PriorityQueue<Info> largest =
+            new PriorityQueue<>(Comparator.comparingLong(i -> i.size));
+        for (Info info : infos) {
+            String type = info.error != null ? "unreadable" : info.type;
+            long[] t = byType.computeIfAbsent(type, k -> new long[3]);
+            t[0] += 1;
+            t[1] += info.size;
+            t[2] += info.compressed;
+            if ("blob".equals(info.type)) {
+                largest.add(info);
+                if (largest.size() > LARGEST) {
+                    largest.poll();
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"repository\":").append(jsonQuote(gitletDir.getPath()));
+        sb.append(",\"objects\":").append(infos.size());
+        sb.append(",\"types\":{");
+        String sep = "";
+        for (Map.Entry<String, long[]> e : byType.entrySet()) {
+            long[] t = e.getValue();
+            sb.append(sep).append(jsonQuote(e.getKey())).append(":{\"count\":")
+                .append(t[0]).append(",\"size\":").append(t[1])
+                .append(",\"compressedSize\":").append(t[2]).append('}');
+            sep = ",";
+        }
+        sb.append("},\"largestBlobs\":[");
+        List<Info> top = new ArrayList<>(largest);
+        top.sort(Comparator.comparingLong((Info i) -> i.size).reversed());
+        sep = "";
+        for (Info info : top) {
+            sb.append(sep).append("{\"id\":").append(jsonQuote(info.id))
+                .append(",\"name\":").append(jsonQuote(info.name))
+                .append(",\"size\":").append(info.size).append('}');
+            sep = ",";
+        }
+        sb.append("]}");
+        System.out.println(sb);
+    }
+
+    /** Add FILE, or the plain files directly in it if it is a directory,
+     *  to FILES. */
+    private static void collect(File file, List<File> files) {
+        if (file.isDirectory()) {
+            List<String> names = Utils.plainFilenamesIn(file);
+            if (names != null) {
+                for (String name : names) {
+                    files.add(new File(file, name));
+                }
+            }
+        } else {
+            files.add(file);
+        }
+    }
+
+    /** Read and describe the object in FILE. */
+    private static Info decode(File file) {
+        Info info = new Info(file);
+        try {
+            byte[] bytes = Utils.readContents(file);
+            info.size = bytes.length;
+            info.compressed = deflatedSize(bytes);
+            Serializable obj = Utils.deserialize(bytes, Serializable.class);
+            if (obj instanceof Commit) {
+                Commit commit = (Commit) obj;
+                info.type = "commit";
+                info.id = commit.getId().toString();
+                info.name = commit.getMessage();
+                for (ObjectId parent : commit.getParents()) {
+                    info.refs.add(parent.toString());
+                }
+                for (ObjectId blob : new TreeMap<>(commit.getBlobs()).values()) {
+                    info.refs.add(blob.toString());
+                }
+            } else if (obj instanceof Blob) {
+                Blob blob = (Blob) obj;
+                info.type = "blob";
+                info.id = blob.getId().toString();
+                info.name = blob.getFilename();
+                ObjectId large = LargeFiles.pointee(blob);
+                if (large != null) {
+                    info.type = "pointer";
+                    info.refs.add(large.toString());
+                }
+            } else if (obj instanceof Stage) {
+                info.type = "stage";
+                for (ObjectId blob
+                         : new TreeMap<>(((Stage) obj).getAdded()).values()) {
+                    info.refs.add(blob.toString());
+                }
+            } else {
+                info.type = obj.getClass().getName();
+            }
+        } catch (IllegalArgumentException excp) {
+            info.error = String.valueOf(excp.getMessage());
+        }
+        return info;
+    }
+
+    /** The length of BYTES deflated at the default level. */
+    private static long deflatedSize(byte[] bytes) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+        byte[] buf = new byte[8192];
+        long n = 0;
+        while (!deflater.finished()) {
+            n += deflater.deflate(buf);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,157 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import static gitlet.Utils.*;
+
+/** `gitlet fetch`: copies a branch of a local remote into this repository.
+ *
+ *  The remote is another repository's .gitlet directory. Commits are read
+ *  breadth-first from the remote branch's tip and copied byte for byte,
+ *  with the blobs they track, unless this repository already has them.
+ *  The result is recorded as the branch [remote]/[branch], kept under
+ *  refs/remotes.
+ *
+ *  Two options make the copy proportional to the tip rather than to the
+ *  history:
+ *
+ *      depth N      only commits fewer than N steps from the tip are
+ *                   copied; commits whose parents were left behind are
+ *                   listed in .gitlet/shallow, and are read as if they
+ *                   had no parents (Commit.graft)
+ *      blob-less    no blobs are copied; the remote is recorded in
+ *                   .gitlet/promisor and Repository.getBlobFile copies a
+ *                   blob over the first time it is needed
+ *
+ *  Fetching again with a larger depth, or without one, deepens a shallow
+ *  history.
+ *
+ *  @author tuysss
+ */
+class Fetch {
+
+    private final Repository repo;
+
+    Fetch(Repository repo) {
+        this.repo = repo;
+    }
+
+    /** Fetch BRANCH of the remote REMOTEDIR (a .gitlet directory), known
+     *  here as REMOTE. DEPTH limits the history copied, 0 meaning all of
+     *  it; BLOBLESS leaves the blobs behind. */
+    void fetch(String remote, File remoteDir, String branch, int depth,
+               boolean blobless) {
+        if (!remoteDir.isDirectory()) {
+            repo.exit("Remote directory not found.");
+        }
+        File ref = join(remoteDir, "refs", "heads", branch);
+        if (!ref.isFile()) {
+            repo.exit("That remote does not have that branch.");
+        }
+        ObjectId tip = ObjectId.fromHex(readContentsAsString(ref).trim());
+        File remoteCommits = join(remoteDir, "commits");
+        File remoteBlobs = join(remoteDir, "blobs");
+
+        Set<String> commits = new HashSet<>(plainFilenamesIn(repo.COMMITS_DIR));
+        Set<String> blobs = new HashSet<>(plainFilenamesIn(repo.BLOBS_DIR));
+        Set<ObjectId> shallow = new HashSet<>(repo.getShallowCommits());
+        // With a shallow history, commits we have may still lead to missing
+        // ones, so the walk has to go on through them.
+        boolean complete = shallow.isEmpty();
+        Map<ObjectId, Integer> distance = new HashMap<>();
+        Queue<ObjectId> queue = new ArrayDeque<>();
+        distance.put(tip, 1);
+        queue.add(tip);
+        Trace.Phase phase = Trace.phase("fetch.copy");
+        try {
+            while (!queue.isEmpty()) {
+                ObjectId id = queue.poll();
+                String name = id.toString();
+                boolean have = commits.contains(name);
+                if (have && complete) {
+                    continue;
+                }
+                byte[] bytes = readContents(join(have ? repo.COMMITS_DIR
+                                                      : remoteCommits, name));
+                Commit commit = deserialize(bytes, Commit.class);
+                if (!have) {
+                    writeContents(join(repo.COMMITS_DIR, name), bytes);
+                    commits.add(name);
+                }
+                if (!blobless) {
+                    for (ObjectId blob : commit.getBlobs().values()) {
+                        File from = join(remoteBlobs, blob.toString());
+                        if (blobs.add(blob.toString()) && from.isFile()) {
+                            copy(from, join(repo.BLOBS_DIR, blob.toString()));
+                        }
+                    }
+                }
+
+                int d = distance.get(id);
+                boolean cut = depth > 0 && d >= depth;
+                for (ObjectId parent : commit.getParents()) {
+                    if (!join(remoteCommits, parent.toString()).isFile()) {
+                        cut = true;
+                    }
+                }
+                if (cut) {
+                    if (!commit.getParents().isEmpty()) {
+                        shallow.add(id);
+                    }
+                    continue;
+                }
+                shallow.remove(id);
+                for (ObjectId parent : commit.getParents()) {
+                    if (!distance.containsKey(parent)) {
+                        distance.put(parent, d + 1);
+                        queue.add(parent);
+                    }
+                }
+            }
+        } finally {
+            phase.end();
+        }
+
+        File branchFile = join(repo.REMOTES_DIR, remote, branch);
+        branchFile.getParentFile().mkdirs();
+        writeContents(branchFile, tip.toString());
+        repo.writeShallowCommits(shallow);
+        if (blobless) {
+            appendLine(repo.PROMISOR, remoteDir.getAbsolutePath());
+        }
+        File remoteLfs = join(remoteDir, "lfs", "objects");
+        if (remoteLfs.isDirectory()) {
+            repo.LFS_DIR.mkdirs();
+            appendLine(join(repo.LFS_DIR, "alternates"),
+                       remoteLfs.getAbsolutePath());
+        }
+    }
+
+    private static void copy(File from, File to) {
+        try {
+            Files.copy(from.toPath(), to.toPath());
+            Trace.wrote(from.length());
+        } catch (IOException excp) {
+            throw error("Cannot copy %s: %s", from, excp.getMessage());
+        }
+    }
+
+    /** Add LINE to the list in FILE, unless it is already there. */
+    private static void appendLine(File file, String line) {
+        String old = file.isFile() ? readContentsAsString(file) : "";
+        for (String l : old.split("\n")) {
+            if (l.trim().equals(line)) {
+                return;
+            }
+        }
+        writeContents(file, old + line + "\n");
+    }
+}
@@ -0,0 +1,296 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static gitlet.Utils.*;
+
+/** `gitlet fsck`: verifies the object store.
+ *
+ *  Pass one re-hashes every object under blobs/, staging/ and commits/ on
+ *  a parallel stream, so it spreads over all cores. Each worker holds one
+ *  decoded object at a time and keeps only the ids of sound objects and
+ *  each sound commit's parent ids.
+ *
+ *  Pass two walks the commit graph from every branch, remote branch,
+ *  stash entry and the stage, reporting references to objects that are
+ *  missing or corrupt. Commits no ref reaches are reported as dangling.
+ *  The commits reached are then read again, in parallel, to check the
+ *  blobs they track, rather than keeping every commit's file -> blob map
+ *  from pass one. Memory therefore grows with the number of objects, one
+ *  id per blob and a few per commit, but not with commits times tracked
+ *  files.
+ *  The parents of a shallow history's boundary commits are not followed,
+ *  and after a blob-less fetch absent blobs are not problems.
+ *
+ *  Blobs that are large-file pointers (see LargeFiles) have their content
+ *  looked up too, in this repository's store or an alternate one, and
+ *  re-hashed in parallel. Missing or corrupt content is reported along
+ *  with the blobs pointing to it, rather than surfacing at checkout.
+ *
+ *  @author tuysss
+ */
+class Fsck {
+
+    private final Repository repo;
+    /** Sound commits, by id, with the parents pass two follows. */
+    private final Map<ObjectId, List<ObjectId>> commits =
+        new ConcurrentHashMap<>();
+    /** Sound blobs, in blobs/ or staging/. */
+    private final Set<ObjectId> blobs = ConcurrentHashMap.newKeySet();
+    /** Large-file content ids, each with a sound blob pointing to it. */
+    private final Map<ObjectId, ObjectId> pointees = new ConcurrentHashMap<>();
+    /** Ids of objects found corrupt. */
+    private final Set<ObjectId> corrupt = ConcurrentHashMap.newKeySet();
+    /** One line per problem. */
+    private final ConcurrentLinkedQueue<String> problems =
+        new ConcurrentLinkedQueue<>();
+    private final AtomicInteger checked = new AtomicInteger();
+    /** True iff missing blobs may be fetched later (blob-less fetch). */
+    private final boolean promised;
+    /** Commits whose parents are not expected (shallow fetch). */
+    private final Set<ObjectId> shallow;
+
+    Fsck(Repository repo) {
+        this.repo = repo;
+        this.promised = repo.PROMISOR.isFile();
+        this.shallow = repo.getShallowCommits();
+    }
+
+    /** Check the repository and print what is wrong with it. */
+    void run() {
+        List<File> objects = new ArrayList<>();
+        listObjects(repo.COMMITS_DIR, objects);
+        listObjects(repo.BLOBS_DIR, objects);
+        listObjects(repo.STAGING_DIR, objects);
+        Trace.Phase phase = Trace.phase("fsck.hash");
+        try {
+            objects.parallelStream().forEach(this::checkObject);
+        } finally {
+            phase.end();
+        }
+        List<String> report = new ArrayList<>(problems);
+        Collections.sort(report);
+        problems.clear();
+
+        phase = Trace.phase("fsck.connectivity");
+        try {
+            checkConnectivity();
+        } finally {
+            phase.end();
+        }
+        List<String> graph = new ArrayList<>(problems);
+        Collections.sort(graph);
+        report.addAll(graph);
+        problems.clear();
+
+        LargeFiles lfs = repo.largeFiles();
+        phase = Trace.phase("fsck.large");
+        try {
+            pointees.entrySet().parallelStream()
+                .forEach(e -> checkLarge(lfs, e));
+        } finally {
+            phase.end();
+        }
+        List<String> large = new ArrayList<>(problems);
+        Collections.sort(large);
+        report.addAll(large);
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : report) {
+            sb.append(line).append('\n');
+        }
+        sb.append(String.format("checked %d objects (%d commits, %d blobs, "
+                + "%d large files): %d problems%n", checked.get(), commits.size(),
+                blobs.size(), pointees.size(), report.size()));
+        System.out.print(sb);
+    }
+
+    private static void listObjects(File dir, List<File> into) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    into.add(file);
+                }
+            }
+        }
+    }
+
+    /** Re-hash the object stored in FILE. */
+    private void checkObject(File file) {
+        checked.incrementAndGet();
+        boolean isCommit = file.getParentFile().equals(repo.COMMITS_DIR);
+        String kind = isCommit ? "commit" : "blob";
+        ObjectId name = ObjectId.fromHex(file.getName());
+        if (name == null) {
+            problems.add("bad object name " + kind + " " + file.getName());
+            return;
+        }
+        try {
+            ObjectId stored;
+            ObjectId actual;
+            if (isCommit) {
+                Commit commit = readObject(file, Commit.class);
+                stored = commit.getId();
+                actual = commit.computeId();
+                if (name.equals(stored) && stored.equals(actual)) {
+                    commits.put(name, shallow.contains(name) ? List.of()
+                                : List.copyOf(commit.getParents()));
+                    return;
+                }
+            } else {
+                Blob blob = readObject(file, Blob.class);
+                stored = blob.getId();
+                actual = blob.computeId();
+                if (name.equals(stored) && stored.equals(actual)) {
+                    blobs.add(name);
+                    ObjectId oid = LargeFiles.pointee(blob);
+                    if (oid != null) {
+                        pointees.putIfAbsent(oid, name);
+                    }
+                    return;
+                }
+            }
+            corrupt.add(name);
+            problems.add(String.format("corrupt %s %s: hashes to %s", kind,
+                                       name, actual));
+        } catch (IllegalArgumentException | ClassCastException excp) {
+            corrupt.add(name);
+            problems.add(String.format("corrupt %s %s: cannot be read", kind,
+                                       name));
+        }
+    }
+
+    /** Walk the commit graph from every ref. */
+    private void checkConnectivity() {
+        Deque<ObjectId> pending = new ArrayDeque<>();
+        Set<ObjectId> reached = new HashSet<>();
+        refsIn(repo.HEADS_DIR, "refs/heads/", pending);
+        refsIn(repo.REMOTES_DIR, "refs/remotes/", pending);
+        for (ObjectId id : new Stash(repo).read()) {
+            if (commits.containsKey(id)) {
+                pending.push(id);
+            } else if (!corrupt.contains(id)) {
+                problems.add(String.format("missing commit %s (refs/stash)",
+                                           id));
+            }
+        }
+
+        Stage stage = null;
+        try {
+            stage = readObject(repo.STAGE, Stage.class);
+        } catch (IllegalArgumentException | ClassCastException excp) {
+            problems.add("corrupt stage");
+        }
+        if (stage != null) {
+            for (Map.Entry<String, ObjectId> e : stage.getAdded().entrySet()) {
+                checkBlob(e.getValue(), e.getKey(), "the stage");
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            ObjectId id = pending.pop();
+            if (!reached.add(id)) {
+                continue;
+            }
+            List<ObjectId> parents = commits.get(id);
+            if (parents == null) {
+                continue;
+            }
+            for (ObjectId parent : parents) {
+                if (!commits.containsKey(parent) && !corrupt.contains(parent)) {
+                    problems.add(String.format(
+                        "missing commit %s (parent of %s)", parent, id));
+                }
+                pending.push(parent);
+            }
+        }
+        reached.parallelStream()
+            .filter(commits::containsKey)
+            .forEach(this::checkBlobsOf);
+
+        for (ObjectId id : commits.keySet()) {
+            if (!reached.contains(id)) {
+                problems.add("dangling commit " + id);
+            }
+        }
+    }
+
+    /** Check the blobs tracked by the sound commit ID. */
+    private void checkBlobsOf(ObjectId id) {
+        Commit commit = readObject(join(repo.COMMITS_DIR, id.toString()),
+                                   Commit.class);
+        for (Map.Entry<String, ObjectId> e : commit.getBlobs().entrySet()) {
+            checkBlob(e.getValue(), e.getKey(), "commit " + id);
+        }
+    }
+
+    private void checkBlob(ObjectId id, String filename, String where) {
+        if (!blobs.contains(id) && !corrupt.contains(id) && !promised) {
+            problems.add(String.format("missing blob %s (%s in %s)", id,
+                                       filename, where));
+        }
+    }
+
+    /** Check that the large-file content E.getKey(), which blob
+     *  E.getValue() points to, is in a store of LFS and hashes to its id. */
+    private void checkLarge(LargeFiles lfs, Map.Entry<ObjectId, ObjectId> e) {
+        ObjectId oid = e.getKey();
+        File file = lfs.find(oid);
+        if (file == null) {
+            problems.add(String.format("missing large file %s (blob %s)",
+                                       oid, e.getValue()));
+            return;
+        }
+        ObjectId actual;
+        try {
+            actual = LargeFiles.hash(file);
+        } catch (IllegalArgumentException excp) {
+            problems.add(String.format("corrupt large file %s: cannot be read",
+                                       oid));
+            return;
+        }
+        if (!oid.equals(actual)) {
+            problems.add(String.format("corrupt large file %s: hashes to %s",
+                                       oid, actual));
+        }
+    }
+
+    /** Queue the commit of every ref file below DIR, recursively, checking
+     *  that it names a sound commit. */
+    private void refsIn(File dir, String prefix, Deque<ObjectId> pending) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String ref = prefix + file.getName();
+            if (file.isDirectory()) {
+                refsIn(file, ref + "/", pending);
+                continue;
+            }
+            ObjectId id = ObjectId.fromHex(readContentsAsString(file).trim());
+            if (id == null) {
+                problems.add("broken ref " + ref);
+            } else if (!commits.containsKey(id)) {
+                if (!corrupt.contains(id)) {
+                    problems.add(String.format("missing commit %s (%s)", id,
+                                               ref));
+                }
+            } else {
+                pending.push(id);
+            }
+        }
+    }
+}
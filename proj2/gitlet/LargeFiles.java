@@ -0,0 +1,292 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static gitlet.Utils.*;
+
+/** Large-file mode: big files are committed as small pointer blobs.
+ *
+ *  Files selected by the .gitletignore-like rules in .gitletlfs at the
+ *  repository root are not stored in their blob. The blob holds a pointer
+ *  instead,
+ *
+ *      gitlet-lfs v1
+ *      oid [SHA-1 of the content]
+ *      size [bytes]
+ *
+ *  and the content goes to .gitlet/lfs/objects/[oid], once per distinct
+ *  content however many files, versions or branches share it. Blob ids,
+ *  commits and history walks therefore only ever see the few bytes of the
+ *  pointer. Bundles carry the content of the pointers they hold as well.
+ *
+ *  Content is looked up only when a pointer is checked out. If it is not
+ *  in this repository's store, each store listed in .gitlet/lfs/alternates
+ *  (one directory per line) is tried and the content copied in, so a
+ *  repository made from another one fetches just the large files it
+ *  actually checks out.
+ *
+ *  A .gitletlfs line is either "size N", selecting files of at least N
+ *  bytes (N may end in k, m or g), or a glob, matched against the file
+ *  name, or against the whole path if it contains a '/'. A size that does
+ *  not parse is an error rather than a rule that selects nothing.
+ *
+ *  @author tuysss
+ */
+class LargeFiles {
+
+    /** Name of the rules file, read from the repository root. */
+    static final String RULES_FILE = ".gitletlfs";
+
+    private static final String HEADER = "gitlet-lfs v1\n";
+    private static final byte[] HEADER_BYTES =
+        HEADER.getBytes(StandardCharsets.UTF_8);
+
+    private final Repository repo;
+    /** Where content is kept. */
+    private final File objects;
+    /** Files at least this large are large; MAX_VALUE for no size rule. */
+    private long threshold = Long.MAX_VALUE;
+    /** Glob rules, and whether each one is matched against the full path. */
+    private final List<PathMatcher> globs = new ArrayList<>();
+    private final List<Boolean> anchored = new ArrayList<>();
+
+    LargeFiles(Repository repo) {
+        this.repo = repo;
+        this.objects = join(repo.LFS_DIR, "objects");
+        readRules();
+    }
+
+    /** Returns true iff no rule selects any file. */
+    boolean isOff() {
+        return threshold == Long.MAX_VALUE && globs.isEmpty();
+    }
+
+    /** Returns true iff the file FILENAME of SIZE bytes is large. */
+    boolean isLarge(String filename, long size) {
+        if (size >= threshold) {
+            return true;
+        }
+        Path path = repo.CWD.toPath().getFileSystem().getPath(filename);
+        for (int i = 0; i < globs.size(); i++) {
+            if (globs.get(i).matches(anchored.get(i) ? path
+                                                     : path.getFileName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the blob recording the working file FILENAME: a pointer if
+     *  the file is large, an ordinary blob otherwise. With KEEP, a large
+     *  file's content is also put in the store. */
+    Blob blobOf(String filename, boolean keep) {
+        File file = join(repo.CWD, filename);
+        if (isOff() || !file.isFile() || !isLarge(filename, file.length())) {
+            return new Blob(filename, repo.CWD);
+        }
+        ObjectId oid = hash(file);
+        if (keep) {
+            store(file, oid);
+        }
+        String pointer = HEADER + "oid " + oid + "\nsize " + file.length()
+            + "\n";
+        return new Blob(filename, repo.CWD,
+                        pointer.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns the content id BLOB points to, or null if it is an ordinary
+     *  blob. */
+    static ObjectId pointee(Blob blob) {
+        byte[] content = blob.getContent();
+        if (content == null || content.length > 128
+                || !startsWith(content, HEADER_BYTES)) {
+            return null;
+        }
+        for (String line : new String(content, StandardCharsets.UTF_8)
+                 .split("\n")) {
+            if (line.startsWith("oid ")) {
+                return ObjectId.fromHex(line.substring(4));
+            }
+        }
+        return null;
+    }
+
+    /** Returns the stored content with id OID, fetching it from an
+     *  alternate store if needed. Exits if no store has it. */
+    File content(ObjectId oid) {
+        File file = join(objects, oid.toString());
+        File found = find(oid);
+        if (found == null) {
+            repo.exit("Large file " + oid + " is not available.");
+        } else if (!found.equals(file)) {
+            store(found, oid);
+        }
+        return file;
+    }
+
+    /** Returns the file holding the content with id OID, in this
+     *  repository's store or else in an alternate one, or null if no store
+     *  has it. Unlike content(), copies nothing. */
+    File find(ObjectId oid) {
+        File file = join(objects, oid.toString());
+        if (file.isFile()) {
+            return file;
+        }
+        File alternates = join(repo.LFS_DIR, "alternates");
+        if (alternates.isFile()) {
+            for (String line : readContentsAsString(alternates).split("\n")) {
+                File other = join(new File(line.trim()), oid.toString());
+                if (!line.isBlank() && other.isFile()) {
+                    return other;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Returns the content of BLOB, following it if it is a pointer. */
+    byte[] read(Blob blob) {
+        ObjectId oid = pointee(blob);
+        return oid == null ? blob.getContent() : readContents(content(oid));
+    }
+
+    /** Returns true iff this repository's own store has the content with
+     *  id OID. */
+    boolean has(ObjectId oid) {
+        return join(objects, oid.toString()).isFile();
+    }
+
+    /** Copy the content of the large file FILE, whose id is OID, into the
+     *  store unless it is there already. */
+    private void store(File file, ObjectId oid) {
+        File target = join(objects, oid.toString());
+        if (target.exists()) {
+            return;
+        }
+        try {
+            Files.createDirectories(objects.toPath());
+            Path tmp = Files.createTempFile(objects.toPath(), "tmp", null);
+            Files.copy(file.toPath(), tmp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            Trace.wrote(file.length());
+        } catch (IOException excp) {
+            throw error("Cannot store large file: %s", excp.getMessage());
+        }
+    }
+
+    /** Returns a new, empty file in the store, to be filled and then
+     *  handed to keep(). */
+    File tempFile() {
+        try {
+            Files.createDirectories(objects.toPath());
+            return Files.createTempFile(objects.toPath(), "tmp", null).toFile();
+        } catch (IOException excp) {
+            throw error("Cannot store large file: %s", excp.getMessage());
+        }
+    }
+
+    /** Move TMP, a file from tempFile() holding the content with id OID,
+     *  into the store, or delete it if the store has that content. */
+    void keep(File tmp, ObjectId oid) {
+        File target = join(objects, oid.toString());
+        try {
+            if (target.exists()) {
+                Files.delete(tmp.toPath());
+                return;
+            }
+            Files.move(tmp.toPath(), target.toPath(),
+                       StandardCopyOption.ATOMIC_MOVE);
+            Trace.wrote(target.length());
+        } catch (IOException excp) {
+            throw error("Cannot store large file: %s", excp.getMessage());
+        }
+    }
+
+    /** The SHA-1 of FILE's content, read in chunks. */
+    static ObjectId hash(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            MessageDigest md = sha1Digest();
+            byte[] buf = new byte[1 << 16];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                md.update(buf, 0, n);
+            }
+            Trace.read(file.length());
+            return ObjectId.fromRaw(md.digest());
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void readRules() {
+        File rules = join(repo.CWD, RULES_FILE);
+        if (!rules.isFile()) {
+            return;
+        }
+        FileSystem fs = repo.CWD.toPath().getFileSystem();
+        for (String line : readContentsAsString(rules).split("\n")) {
+            String rule = line.trim();
+            if (rule.isEmpty() || rule.startsWith("#")) {
+                continue;
+            }
+            if (rule.startsWith("size ")) {
+                threshold = Math.min(threshold, parseSize(rule.substring(5)));
+                continue;
+            }
+            if (rule.startsWith("/")) {
+                rule = rule.substring(1);
+            }
+            anchored.add(rule.contains("/"));
+            globs.add(fs.getPathMatcher("glob:" + rule));
+        }
+    }
+
+    /** Returns the byte count written as VALUE, e.g. "512", "4k", "1m".
+     *  Exits naming VALUE if it is not one. */
+    private long parseSize(String value) {
+        String v = value.trim().toLowerCase();
+        long unit = 1;
+        if (v.endsWith("k")) {
+            unit = 1L << 10;
+        } else if (v.endsWith("m")) {
+            unit = 1L << 20;
+        } else if (v.endsWith("g")) {
+            unit = 1L << 30;
+        }
+        if (unit != 1) {
+            v = v.substring(0, v.length() - 1).trim();
+        }
+        try {
+            long n = Long.parseLong(v);
+            if (n >= 0) {
+                return Math.multiplyExact(n, unit);
+            }
+        } catch (NumberFormatException | ArithmeticException excp) {
+            // Reported below.
+        }
+        repo.exit("Invalid size in " + RULES_FILE + ": " + value.trim());
+        return Long.MAX_VALUE;
+    }
+}
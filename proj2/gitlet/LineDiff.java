@@ -0,0 +1,170 @@
+package gitlet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Line-level diffing of file contents.
+ *
+ *  Lines are interned to small ints first, so the inner loop compares
+ *  ints instead of Strings, and the common prefix and suffix are matched
+ *  before running Myers' O((N+M)D) shortest-edit-script search on what
+ *  is left. The search is the linear-space variant: it finds where the
+ *  forward and backward searches meet halfway, splits there and recurses
+ *  on both halves, so it needs O(N+M) memory however far apart the two
+ *  versions are, not a snapshot of the frontier for every edit distance.
+ *
+ *  @author tuysss
+ */
+class LineDiff {
+
+    /** Split CONTENT into lines. A trailing newline does not start a new,
+     *  empty line. */
+    static String[] lines(byte[] content) {
+        if (content == null || content.length == 0) {
+            return new String[0];
+        }
+        String text = new String(content, StandardCharsets.UTF_8);
+        String[] res = text.split("\n", -1);
+        if (text.endsWith("\n")) {
+            res = Arrays.copyOf(res, res.length - 1);
+        }
+        return res;
+    }
+
+    /** Returns an array M with one entry per line of AFTER: M[j] is the index
+     *  of the line of BEFORE that line j was kept from, or -1 if line j was
+     *  added. Kept lines form a longest common subsequence. */
+    static int[] match(String[] before, String[] after) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = intern(before, ids);
+        int[] b = intern(after, ids);
+        int[] res = new int[b.length];
+        Arrays.fill(res, -1);
+        diff(a, 0, a.length, b, 0, b.length, res);
+        return res;
+    }
+
+    private static int[] intern(String[] lines, Map<String, Integer> ids) {
+        int[] res = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            Integer id = ids.get(lines[i]);
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines[i], id);
+            }
+            res[i] = id;
+        }
+        return res;
+    }
+
+    /** Records into RES a longest common subsequence of A[A0..A1) and
+     *  B[B0..B1): matches the common prefix and suffix, then splits what
+     *  is left where its shortest edit script is halfway done. */
+    private static void diff(int[] a, int a0, int a1, int[] b, int b0,
+                             int b1, int[] res) {
+        while (a0 < a1 && b0 < b1 && a[a0] == b[b0]) {
+            res[b0] = a0;
+            a0++;
+            b0++;
+        }
+        while (a0 < a1 && b0 < b1 && a[a1 - 1] == b[b1 - 1]) {
+            a1--;
+            b1--;
+            res[b1] = a1;
+        }
+        if (a0 == a1 || b0 == b1) {
+            return;
+        }
+        int[] split = bisect(a, a0, a1, b, b0, b1);
+        if (split != null) {
+            diff(a, a0, a0 + split[0], b, b0, b0 + split[1], res);
+            diff(a, a0 + split[0], a1, b, b0 + split[1], b1, res);
+        }
+    }
+
+    /** Runs Myers' search forward from the start of A[A0..A1) and
+     *  B[B0..B1) and backward from their ends, one edit distance at a time
+     *  each, and returns the offsets {x, y} of a point where the two paths
+     *  meet. Both halves of an edit script through it have fewer edits than
+     *  the whole. Returns null only if the paths never meet, which cannot
+     *  happen for nonempty ranges. */
+    private static int[] bisect(int[] a, int a0, int a1, int[] b, int b0,
+                                int b1) {
+        int n = a1 - a0, m = b1 - b0;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        // forward[offset + k]: furthest x reached on diagonal k = x - y from
+        // the start; backward[offset + k]: the same from the ends.
+        int[] forward = new int[2 * maxD + 2];
+        int[] backward = new int[2 * maxD + 2];
+        Arrays.fill(forward, -1);
+        Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        // With an odd delta the paths meet during a forward step,
+        // otherwise during a backward one.
+        boolean front = (delta & 1) != 0;
+        // Diagonals that ran off the grid, trimmed from later steps.
+        int fStart = 0, fEnd = 0, bStart = 0, bEnd = 0;
+        for (int d = 0; d < maxD; d++) {
+            for (int k = -d + fStart; k <= d - fEnd; k += 2) {
+                int i = offset + k;
+                int x;
+                if (k == -d || (k != d && forward[i - 1] < forward[i + 1])) {
+                    x = forward[i + 1];
+                } else {
+                    x = forward[i - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[a0 + x] == b[b0 + y]) {
+                    x++;
+                    y++;
+                }
+                forward[i] = x;
+                if (x > n) {
+                    fEnd += 2;
+                } else if (y > m) {
+                    fStart += 2;
+                } else if (front) {
+                    int j = offset + delta - k;
+                    if (j >= 0 && j < backward.length && backward[j] != -1
+                            && x >= n - backward[j]) {
+                        return new int[] {x, y};
+                    }
+                }
+            }
+            for (int k = -d + bStart; k <= d - bEnd; k += 2) {
+                int i = offset + k;
+                int x;
+                if (k == -d || (k != d && backward[i - 1] < backward[i + 1])) {
+                    x = backward[i + 1];
+                } else {
+                    x = backward[i - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m
+                        && a[a1 - x - 1] == b[b1 - y - 1]) {
+                    x++;
+                    y++;
+                }
+                backward[i] = x;
+                if (x > n) {
+                    bEnd += 2;
+                } else if (y > m) {
+                    bStart += 2;
+                } else if (!front) {
+                    int j = offset + delta - k;
+                    if (j >= 0 && j < forward.length && forward[j] != -1
+                            && forward[j] >= n - x) {
+                        int fx = forward[j];
+                        return new int[] {fx, fx - (j - offset)};
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,7 @@
 package gitlet;
 
+import java.util.Arrays;
+
 
 /** Driver class for Gitlet, a subset of the Git version-control system.
  *  @author vv
@@ -16,6 +18,7 @@ public class Main {
         }
         Repository repo = new Repository();
         String firstArg = args[0];
+        Trace.command(firstArg);
         switch(firstArg) {
             case "init":
                 // handle the `init` command
@@ -39,9 +42,14 @@ public class Main {
                 repo.commit(args[1]);
                 break;
             case "log":
-                repo.checkCommandLength(args.length, 1);
+                // java gitlet.Main log [-n count] [--since date]
+                repo.checkIfInitDirectoryExists();
+                repo.logWithOptions(args);
+                break;
+            case "blame":
+                repo.checkCommandLength(args.length, 2);
                 repo.checkIfInitDirectoryExists();
-                repo.log();
+                repo.blame(args[1]);
                 break;
             case "global-log":
                 repo.checkCommandLength(args.length, 1);
@@ -98,6 +106,69 @@ public class Main {
                 repo.checkIfInitDirectoryExists();
                 repo.merge(args[1]);
                 break;
+            case "fsck":
+                repo.checkCommandLength(args.length, 1);
+                repo.checkIfInitDirectoryExists();
+                repo.fsck();
+                break;
+            case "bundle":
+                if (args.length < 3) {
+                    repo.messageIncorrectOperands();
+                }
+                repo.checkIfInitDirectoryExists();
+                if (args[1].equals("create")) {
+                    repo.bundleCreate(args[2],
+                        Arrays.asList(args).subList(3, args.length));
+                } else if (args[1].equals("unbundle")) {
+                    repo.checkCommandLength(args.length, 3);
+                    repo.bundleUnbundle(args[2]);
+                } else {
+                    repo.messageIncorrectOperands();
+                }
+                break;
+            case "cherry-pick":
+                repo.checkCommandLength(args.length, 2);
+                repo.checkIfInitDirectoryExists();
+                repo.cherryPick(args[1]);
+                break;
+            case "rebase":
+                repo.checkCommandLength(args.length, 2);
+                repo.checkIfInitDirectoryExists();
+                repo.rebase(args[1]);
+                break;
+            case "sparse-checkout":
+                if (args.length < 2) {
+                    repo.messageIncorrectOperands();
+                }
+                repo.checkIfInitDirectoryExists();
+                repo.sparseCheckout(args);
+                break;
+            case "stash":
+                repo.checkIfInitDirectoryExists();
+                repo.stash(args);
+                break;
+            case "add-remote":
+                repo.checkCommandLength(args.length, 3);
+                repo.checkIfInitDirectoryExists();
+                repo.addRemote(args[1], args[2]);
+                break;
+            case "rm-remote":
+                repo.checkCommandLength(args.length, 2);
+                repo.checkIfInitDirectoryExists();
+                repo.rmRemote(args[1]);
+                break;
+            case "fetch":
+                if (args.length < 3) {
+                    repo.messageIncorrectOperands();
+                }
+                repo.checkIfInitDirectoryExists();
+                repo.fetch(args);
+                break;
+            case "merge-tree":
+                repo.checkCommandLength(args.length, 3);
+                repo.checkIfInitDirectoryExists();
+                repo.mergeTree(args[1], args[2]);
+                break;
             default:
                 System.out.println("No command with that name exists.");
                 System.exit(0);
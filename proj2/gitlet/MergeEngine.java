@@ -0,0 +1,232 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static gitlet.Utils.*;
+
+/** A merge computed purely from objects.
+ *
+ *  merge(ours, theirs) finds the split point of two commits and the merged
+ *  file -> blob map with the same rules as `gitlet merge`, but reads only
+ *  .gitlet/commits and never the working directory or the stage. Deciding
+ *  a file needs nothing but its three blob ids, so no blob is ever read.
+ *  commit() optionally turns a clean result into a merge commit object,
+ *  leaving branches and the working tree alone.
+ *
+ *  One engine remembers every commit it has read and the ancestor set of
+ *  every "ours" side it has merged, so checking one branch against
+ *  hundreds of others walks its history once.
+ *
+ *  @author tuysss
+ */
+public class MergeEngine {
+
+    /** How two commits relate. */
+    public enum Kind {
+        /** Theirs is already an ancestor of ours; nothing to merge. */
+        UP_TO_DATE,
+        /** Ours is an ancestor of theirs; ours can simply move to theirs. */
+        FAST_FORWARD,
+        /** The histories diverged and were merged file by file. */
+        MERGED
+    }
+
+    /** The outcome of merging two commits. */
+    public static class Result {
+        private final ObjectId ours;
+        private final ObjectId theirs;
+        private final ObjectId base;
+        private final Kind kind;
+        private final Map<String, ObjectId> tree;
+        private final SortedSet<String> conflicts;
+
+        Result(ObjectId ours, ObjectId theirs, ObjectId base, Kind kind,
+               Map<String, ObjectId> tree, SortedSet<String> conflicts) {
+            this.ours = ours;
+            this.theirs = theirs;
+            this.base = base;
+            this.kind = kind;
+            this.tree = tree;
+            this.conflicts = conflicts;
+        }
+
+        public ObjectId getOurs() {
+            return ours;
+        }
+
+        public ObjectId getTheirs() {
+            return theirs;
+        }
+
+        /** The split point of the two histories. */
+        public ObjectId getBase() {
+            return base;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /** The merged snapshot, file name -> blob id. A conflicted file
+         *  keeps our version here. */
+        public Map<String, ObjectId> getTree() {
+            return Collections.unmodifiableMap(tree);
+        }
+
+        /** Files changed differently on both sides, in order. */
+        public SortedSet<String> getConflicts() {
+            return Collections.unmodifiableSortedSet(conflicts);
+        }
+
+        public boolean isClean() {
+            return conflicts.isEmpty();
+        }
+    }
+
+    private final Repository repo;
+    /** Every commit read so far. */
+    private final Map<ObjectId, Commit> commits = new HashMap<>();
+    /** Ancestor sets (including the commit itself) computed so far. */
+    private final Map<ObjectId, Set<ObjectId>> ancestors = new HashMap<>();
+
+    public MergeEngine(Repository repo) {
+        this.repo = repo;
+    }
+
+    /** Merge commit THEIRS into commit OURS. */
+    public Result merge(ObjectId ours, ObjectId theirs) {
+        Commit head = read(ours);
+        Commit other = read(theirs);
+        ObjectId base = mergeBase(ours, theirs);
+
+        if (base.equals(theirs)) {
+            return new Result(ours, theirs, base, Kind.UP_TO_DATE,
+                              new HashMap<>(head.getBlobs()), new TreeSet<>());
+        }
+        if (base.equals(ours)) {
+            return new Result(ours, theirs, base, Kind.FAST_FORWARD,
+                              new HashMap<>(other.getBlobs()), new TreeSet<>());
+        }
+
+        SortedSet<String> conflicts = new TreeSet<>();
+        Map<String, ObjectId> tree = mergeTrees(read(base).getBlobs(),
+                head.getBlobs(), other.getBlobs(), conflicts);
+        return new Result(ours, theirs, base, Kind.MERGED, tree, conflicts);
+    }
+
+    /** Returns the three-way merge of snapshots H and O, file name -> blob
+     *  id, against their common ancestor LCA. Files changed differently on
+     *  both sides are added to CONFLICTS and keep their H version. */
+    static Map<String, ObjectId> mergeTrees(Map<String, ObjectId> lca,
+                                            Map<String, ObjectId> h,
+                                            Map<String, ObjectId> o,
+                                            SortedSet<String> conflicts) {
+        Map<String, ObjectId> tree = new HashMap<>(h);
+        Set<String> filenames = new HashSet<>(lca.keySet());
+        filenames.addAll(h.keySet());
+        filenames.addAll(o.keySet());
+        for (String filename : filenames) {
+            ObjectId lId = lca.get(filename);
+            ObjectId hId = h.get(filename);
+            ObjectId oId = o.get(filename);
+            if (Objects.equals(oId, lId) || Objects.equals(hId, oId)) {
+                continue;
+            }
+            if (Objects.equals(lId, hId)) {
+                if (oId == null) {
+                    tree.remove(filename);
+                } else {
+                    tree.put(filename, oId);
+                }
+            } else {
+                conflicts.add(filename);
+            }
+        }
+        return tree;
+    }
+
+    /** Returns the latest common ancestor of commits A and B: the first
+     *  ancestor of B, in breadth-first order, that is also an ancestor of
+     *  A. */
+    public ObjectId mergeBase(ObjectId a, ObjectId b) {
+        Set<ObjectId> mine = ancestorsOf(a);
+        Set<ObjectId> seen = new HashSet<>();
+        Queue<ObjectId> queue = new ArrayDeque<>();
+        queue.add(b);
+        while (!queue.isEmpty()) {
+            ObjectId id = queue.poll();
+            if (mine.contains(id)) {
+                return id;
+            }
+            if (seen.add(id)) {
+                queue.addAll(read(id).getParents());
+            }
+        }
+        throw error("Commits %s and %s have no common ancestor.", a, b);
+    }
+
+    /** Write RESULT as a merge commit with message MESSAGE and return its
+     *  id. Only the commit object is written: no branch moves and the
+     *  working tree is not touched. RESULT must be a clean MERGED result. */
+    public ObjectId commit(Result result, String message) {
+        if (result.getKind() != Kind.MERGED) {
+            throw error("Nothing to merge.");
+        }
+        if (!result.isClean()) {
+            throw error("Cannot commit a merge with conflicts.");
+        }
+        Commit merged = new Commit(message,
+                List.of(result.getOurs(), result.getTheirs()),
+                new HashMap<>(result.tree));
+        File file = join(repo.COMMITS_DIR, merged.getId().toString());
+        writeObject(file, merged);
+        commits.put(merged.getId(), merged);
+        return merged.getId();
+    }
+
+    /** The set of ID and all its ancestors, memoized per id. */
+    Set<ObjectId> ancestorsOf(ObjectId id) {
+        Set<ObjectId> res = ancestors.get(id);
+        if (res != null) {
+            return res;
+        }
+        res = new HashSet<>();
+        Queue<ObjectId> queue = new ArrayDeque<>();
+        queue.add(id);
+        while (!queue.isEmpty()) {
+            ObjectId next = queue.poll();
+            Set<ObjectId> known = ancestors.get(next);
+            if (known != null) {
+                res.addAll(known);
+            } else if (res.add(next)) {
+                queue.addAll(read(next).getParents());
+            }
+        }
+        ancestors.put(id, res);
+        return res;
+    }
+
+    /** Returns the commit ID, reading it at most once per engine. */
+    Commit read(ObjectId id) {
+        Commit commit = commits.get(id);
+        if (commit == null) {
+            commit = repo.getCommitFromId(id);
+            if (commit == null) {
+                throw error("No commit with that id exists.");
+            }
+            commits.put(id, commit);
+        }
+        return commit;
+    }
+}
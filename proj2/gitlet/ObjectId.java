@@ -0,0 +1,147 @@
+package gitlet;
+
+import java.io.Serializable;
+
+/** The SHA-1 name of a gitlet object (commit or blob), held as its 20 raw
+ *  bytes rather than as a 40-character hex String.
+ *
+ *  An ObjectId is immutable. Its hash code is taken from the leading bytes
+ *  of the digest, which are already uniformly distributed, and is cached,
+ *  so ObjectIds are cheap HashMap keys; equality compares three words
+ *  instead of 40 chars. The hex form is only produced where an id meets
+ *  the outside world: file names under .gitlet and command output.
+ *
+ *  Commits, blobs and the stage serialize their ids as ObjectIds. Objects
+ *  from repositories made before that, which held hex Strings, cannot be
+ *  read; Utils reports them as written by an incompatible version. The
+ *  serialVersionUID below must not change, or no stored object could be,
+ *  and neither may those of Commit, Blob and Stage.
+ *
+ *  @author tuysss
+ */
+public final class ObjectId implements Serializable, Comparable<ObjectId> {
+
+    private static final long serialVersionUID = 4373430034110034302L;
+
+    /** Length of the raw digest in bytes. */
+    static final int RAW_LENGTH = 20;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Bytes 0-7, 8-15 and 16-19 of the digest, big-endian. */
+    private final long w0;
+    private final long w1;
+    private final int w2;
+    /** Cached hash code. */
+    private final int hash;
+
+    private ObjectId(long w0, long w1, int w2) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.hash = (int) (w0 >>> 32);
+    }
+
+    /** Returns the id whose raw bytes are DIGEST[0..20). */
+    static ObjectId fromRaw(byte[] digest) {
+        if (digest.length < RAW_LENGTH) {
+            throw new IllegalArgumentException("short object id");
+        }
+        return new ObjectId(word(digest, 0), word(digest, 8),
+                            (int) word(digest, 12));
+    }
+
+    /** Returns the id written in hex as HEX, or null if HEX is not a
+     *  complete, well-formed id. */
+    public static ObjectId fromHex(String hex) {
+        if (hex == null || hex.length() != 2 * RAW_LENGTH) {
+            return null;
+        }
+        byte[] raw = new byte[RAW_LENGTH];
+        for (int i = 0; i < RAW_LENGTH; i++) {
+            int hi = Character.digit(hex.charAt(2 * i), 16);
+            int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            raw[i] = (byte) ((hi << 4) | lo);
+        }
+        return fromRaw(raw);
+    }
+
+    /** Returns a fresh copy of the 20 raw bytes. */
+    byte[] toRaw() {
+        byte[] raw = new byte[RAW_LENGTH];
+        for (int i = 0; i < 8; i++) {
+            raw[i] = (byte) (w0 >>> (56 - 8 * i));
+            raw[8 + i] = (byte) (w1 >>> (56 - 8 * i));
+        }
+        for (int i = 0; i < 4; i++) {
+            raw[16 + i] = (byte) (w2 >>> (24 - 8 * i));
+        }
+        return raw;
+    }
+
+    /** Returns the first N hex digits of this id. */
+    String abbreviate(int n) {
+        return toString().substring(0, n);
+    }
+
+    /** The 40-digit lowercase hex form. */
+    @Override
+    public String toString() {
+        char[] out = new char[2 * RAW_LENGTH];
+        hex(w0, 8, out, 0);
+        hex(w1, 8, out, 16);
+        hex(w2, 4, out, 32);
+        return new String(out);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ObjectId)) {
+            return false;
+        }
+        ObjectId other = (ObjectId) obj;
+        return w0 == other.w0 && w1 == other.w1 && w2 == other.w2;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /** Orders ids as their hex forms would be ordered. */
+    @Override
+    public int compareTo(ObjectId other) {
+        int c = Long.compareUnsigned(w0, other.w0);
+        if (c == 0) {
+            c = Long.compareUnsigned(w1, other.w1);
+        }
+        if (c == 0) {
+            c = Integer.compareUnsigned(w2, other.w2);
+        }
+        return c;
+    }
+
+    /** Write the hex digits of the low NBYTES bytes of V into OUT at POS,
+     *  one table lookup per digit. */
+    private static void hex(long v, int nbytes, char[] out, int pos) {
+        for (int i = 2 * nbytes - 1; i >= 0; i--) {
+            out[pos + i] = HEX[(int) (v & 0xf)];
+            v >>>= 4;
+        }
+    }
+
+    /** Bytes B[OFF..OFF+8) as a big-endian long. */
+    private static long word(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (b[off + i] & 0xff);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,93 @@
+package gitlet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static gitlet.Utils.*;
+
+/** Replays commits onto a new tip, for `cherry-pick` and `rebase`.
+ *
+ *  Each commit is replayed as a three-way merge of snapshots: the change
+ *  from its first parent to itself is applied to the new tip with
+ *  MergeEngine.mergeTrees, so nothing but commit objects is read and the
+ *  working tree is not touched while replaying. The new commits are kept
+ *  in memory until write() stores them all at once; a conflict part way
+ *  through a rebase therefore leaves no objects behind, and the caller
+ *  moves the branch and the working tree once, from the old tip to the
+ *  final one.
+ *
+ *  @author tuysss
+ */
+class Replay {
+
+    private final Repository repo;
+    private final MergeEngine engine;
+    /** Commits made so far and not yet written, oldest first. */
+    private final List<Commit> made = new ArrayList<>();
+
+    Replay(Repository repo) {
+        this.repo = repo;
+        this.engine = new MergeEngine(repo);
+    }
+
+    MergeEngine engine() {
+        return engine;
+    }
+
+    /** Returns a commit on top of ONTO making the same change COMMIT made
+     *  to its first parent, with COMMIT's message, or ONTO itself if that
+     *  change is already in ONTO. Exits if the change conflicts. */
+    Commit pick(Commit onto, Commit commit) {
+        ObjectId parent = commit.getFirstParentId();
+        Map<String, ObjectId> base = parent == null
+            ? Collections.emptyMap() : engine.read(parent).getBlobs();
+        SortedSet<String> conflicts = new TreeSet<>();
+        Map<String, ObjectId> tree = MergeEngine.mergeTrees(base,
+                onto.getBlobs(), commit.getBlobs(), conflicts);
+        if (!conflicts.isEmpty()) {
+            repo.exit(String.format("Commit %s conflicts in %s.",
+                    commit.getId().abbreviate(7),
+                    String.join(", ", conflicts)));
+        }
+        if (tree.equals(onto.getBlobs())) {
+            return onto;
+        }
+        Commit picked = new Commit(commit.getMessage(),
+                                   List.of(onto.getId()), tree);
+        made.add(picked);
+        return picked;
+    }
+
+    /** Returns the commits of HEAD's first-parent history that UPSTREAM
+     *  does not contain, oldest first. */
+    List<Commit> commitsSince(ObjectId head, ObjectId upstream) {
+        Set<ObjectId> contained = engine.ancestorsOf(upstream);
+        List<Commit> res = new ArrayList<>();
+        for (ObjectId id = head; id != null && !contained.contains(id);) {
+            Commit commit = engine.read(id);
+            res.add(commit);
+            id = commit.getFirstParentId();
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /** Store every commit made so far. */
+    void write() {
+        Trace.Phase phase = Trace.phase("replay.write");
+        try {
+            for (Commit commit : made) {
+                writeObject(join(repo.COMMITS_DIR, commit.getId().toString()),
+                            commit);
+            }
+            made.clear();
+        } finally {
+            phase.end();
+        }
+    }
+}
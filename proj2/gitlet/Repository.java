@@ -1,10 +1,12 @@
 package gitlet;
 
 import java.io.File;
-import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
 import java.util.*;
 
 import static gitlet.Utils.*;
@@ -50,6 +52,11 @@ public class Repository {
         this.REMOTES_DIR = join(REFS_DIR, "remotes");
         this.HEAD = join(GITLET_DIR, "HEAD");
         this.CONFIG = join(GITLET_DIR, "config");
+        this.SPARSE_CHECKOUT = join(GITLET_DIR, "sparse-checkout");
+        this.STASH = join(REFS_DIR, "stash");
+        this.LFS_DIR = join(GITLET_DIR, "lfs");
+        this.SHALLOW = join(GITLET_DIR, "shallow");
+        this.PROMISOR = join(GITLET_DIR, "promisor");
     }
 
     /**
@@ -99,6 +106,38 @@ public class Repository {
 
     public File CONFIG;
 
+    /**
+     * The sparse-checkout filter, absent if every path is checked out
+     */
+    public File SPARSE_CHECKOUT;
+
+    /**
+     * The stash entries, newest first, absent if there are none
+     */
+    public File STASH;
+
+    /**
+     * The large-file store: content of pointer blobs, by content id
+     */
+    public File LFS_DIR;
+
+    /**
+     * Commits whose parents a shallow fetch did not copy, one id per line
+     */
+    public File SHALLOW;
+
+    /**
+     * The .gitlet directories of remotes a blob-less fetch copied commits
+     * from, one per line; blobs missing here are fetched from them on use
+     */
+    public File PROMISOR;
+
+    /** The shallow commits, read on first use. */
+    private Set<ObjectId> shallow;
+
+    /** The large-file rules, read on first use. */
+    private LargeFiles largeFiles;
+
     public void init() {
         // Failure cases
         if (GITLET_DIR.exists() && GITLET_DIR.isDirectory()) {
@@ -119,7 +158,7 @@ public class Repository {
         // initial commit
         Commit initialCommit = new Commit();
         writeCommitToFile(initialCommit);
-        String id = initialCommit.getId();
+        String id = initialCommit.getId().toString();
 
         // create branch: master
         String branchName = "master";
@@ -151,30 +190,32 @@ public class Repository {
 
         Commit head = getHead();
         Stage stage = readStage();
-        // blob id
-        String headId = head.getBlobs().getOrDefault(filename, "");
-        String stageId = stage.getAdded().getOrDefault(filename, "");
+        // blob id, null if absent
+        ObjectId headId = head.getBlobs().get(filename);
+        ObjectId stageId = stage.getAdded().get(filename);
 
-        Blob blob = new Blob(filename, CWD);
-        String blobId = blob.getId();
+        Blob blob = largeFiles().blobOf(filename, true);
+        ObjectId blobId = blob.getId();
 
         if (blobId.equals(headId)) {
             // no need to add the file
             if (!blobId.equals(stageId)) {
                 // del the file from staging
-                join(STAGING_DIR, stageId).delete();
-                stage.getAdded().remove(stageId);
+                if (stageId != null) {
+                    join(STAGING_DIR, stageId.toString()).delete();
+                }
+                stage.getAdded().remove(filename);
                 stage.getRemoved().remove(filename);
                 writeStage(stage);
             }
         } else if (!blobId.equals(stageId)) {
             // update staging
             // del original, add the new version
-            if (!stageId.equals("")) {
-                join(STAGING_DIR, stageId).delete();
+            if (stageId != null) {
+                join(STAGING_DIR, stageId.toString()).delete();
             }
 
-            writeObject(join(STAGING_DIR, blobId), blob);
+            writeObject(join(STAGING_DIR, blobId.toString()), blob);
             // change stage added files
             stage.addFile(filename, blobId);
             writeStage(stage);
@@ -189,32 +230,30 @@ public class Repository {
      * @param filename
      */
     public void rm(String filename){
-        File file=join(CWD,filename);
-
         Commit head=getHead();
         Stage stage = readStage();
 
-        String headId = head.getBlobs().getOrDefault(filename, "");
-        String stageId = stage.getAdded().getOrDefault(filename, "");
+        ObjectId headId = head.getBlobs().get(filename);
+        ObjectId stageId = stage.getAdded().get(filename);
 
-        if(headId.equals("")&&stageId.equals("")){
+        if(headId==null&&stageId==null){
             exit("No reason to remove the file.");
         }
 
         //Unstage the file if it is currently staged for addition.
-        if(!stageId.equals("")){
+        if(stageId!=null){
             stage.getAdded().remove(filename);
         }else{
             //stage it for removal.
             stage.getRemoved().add(filename);
         }
 
-        Blob blob=new Blob(filename,CWD);
-        String blobId = blob.getId();
+        Blob blob=largeFiles().blobOf(filename, false);
+        ObjectId blobId = blob.getId();
         // If the file is tracked in the current commit
         if(blob.exists()&&blobId.equals(headId)){
             //remove the file from the working directory.
-            restrictedDelete(file);
+            deleteWorkingFile(filename);
         }
         writeStage(stage);
     }
@@ -229,50 +268,181 @@ public class Repository {
     }
 
     private void commitWith(String message, List<Commit> parents) {
-        Stage stage = readStage();
-        // If no files have been staged, abort.
-        if (stage.isEmpty()) {
-            exit("No changes added to the commit.");
-        }
+        Trace.Phase phase = Trace.phase("commit.write");
+        try {
+            Stage stage = readStage();
+            // If no files have been staged, abort.
+            if (stage.isEmpty()) {
+                exit("No changes added to the commit.");
+            }
 
-        Commit commit = new Commit(message, parents, stage);
-        clearStage(stage);
-        writeCommitToFile(commit);
+            Commit commit = new Commit(message, parents, stage);
+            clearStage(stage);
+            writeCommitToFile(commit);
 
-        String commitId = commit.getId();
-        String branchName = getHeadBranchName();
-        File branch = getBranchFile(branchName);
-        writeContents(branch, commitId);
+            String branchName = getHeadBranchName();
+            File branch = getBranchFile(branchName);
+            writeContents(branch, commit.getId().toString());
+        } finally {
+            phase.end();
+        }
     }
 
 
     public void log() {
-        StringBuffer sb = new StringBuffer();
-        Commit commit = getHead();
-        while (commit != null) {
-            sb.append(commit.getCommitAsString());
-            commit = getCommitFromId(commit.getFirstParentId());
+        log(Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * java gitlet.Main log [-n count] [--since date]
+     *
+     * Walks the first parents of HEAD, printing each commit as soon as it is
+     * read, so output starts after one object rather than the whole chain.
+     * The walk stops after MAXCOUNT commits, or at the first commit older
+     * than SINCE (when not null); nothing past that point is deserialized.
+     */
+    public void log(int maxCount, Date since) {
+        ObjectId id = getHeadCommitId();
+        for (int n = 0; n < maxCount; n++) {
+            Commit commit = getCommitFromId(id);
+            if (commit == null
+                    || (since != null && commit.getTimestamp().before(since))) {
+                break;
+            }
+            System.out.print(commit.getCommitAsString());
+            id = commit.getFirstParentId();
         }
+        System.out.flush();
+    }
 
-        System.out.print(sb);
+    /**
+     * Parse the options of the log command, ARGS[1..], and run it.
+     */
+    void logWithOptions(String[] args) {
+        int maxCount = Integer.MAX_VALUE;
+        Date since = null;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            String value;
+            if (arg.startsWith("--max-count=") || arg.startsWith("--since=")) {
+                value = arg.substring(arg.indexOf('=') + 1);
+                arg = arg.substring(0, arg.indexOf('='));
+            } else if (arg.startsWith("-n") && arg.length() > 2) {
+                value = arg.substring(2);
+                arg = "-n";
+            } else if (i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                messageIncorrectOperands();
+                return;
+            }
+            switch (arg) {
+                case "-n":
+                case "--max-count":
+                    try {
+                        maxCount = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        messageIncorrectOperands();
+                    }
+                    if (maxCount < 0) {
+                        messageIncorrectOperands();
+                    }
+                    break;
+                case "--since":
+                    since = parseDate(value);
+                    break;
+                default:
+                    messageIncorrectOperands();
+            }
+        }
+        log(maxCount, since);
+    }
+
+    /**
+     * Accepts "yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss" (local time) or the
+     * format log itself prints, "Thu Nov 9 20:00:05 2017 -0800".
+     */
+    private Date parseDate(String value) {
+        String[] patterns = {"yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd",
+                             "EEE MMM d HH:mm:ss yyyy Z"};
+        for (String pattern : patterns) {
+            SimpleDateFormat df = new SimpleDateFormat(pattern, Locale.ENGLISH);
+            df.setLenient(false);
+            ParsePosition pos = new ParsePosition(0);
+            Date date = df.parse(value, pos);
+            if (date != null && pos.getIndex() == value.length()) {
+                return date;
+            }
+        }
+        exit("Invalid date: " + value);
+        return null;
     }
 
     public void global_log() {
         StringBuffer sb = new StringBuffer();
         List<String> filenames = plainFilenamesIn(COMMITS_DIR);
         for (String filename : filenames) {
-            Commit commit = getCommitFromId(filename);
+            Commit commit = getCommitFromId(ObjectId.fromHex(filename));
             sb.append(commit.getCommitAsString());
         }
         System.out.println(sb);
     }
 
 
+    /**
+     * java gitlet.Main blame [file name]
+     *
+     * Prints each line of the file as of the head commit, prefixed by the
+     * commit that last changed it.
+     */
+    public void blame(String filename) {
+        new Blame(this).blame(filename);
+    }
+
+    /**
+     * java gitlet.Main fsck
+     *
+     * Re-hashes every object, checks that everything reachable from a branch
+     * or the stage exists, and prints one line per problem found followed by
+     * a summary.
+     */
+    public void fsck() {
+        new Fsck(this).run();
+    }
+
+
+    /**
+     * java gitlet.Main bundle create [file] [branch name]...
+     *
+     * Writes every commit and blob reachable from the given branches (all
+     * branches if none are given) into one compressed file.
+     */
+    public void bundleCreate(String filename, List<String> branches) {
+        new Bundle(this).create(resolvePath(filename), branches);
+    }
+
+    /**
+     * java gitlet.Main bundle unbundle [file]
+     *
+     * Copies the objects in a bundle into this repository and creates the
+     * bundled branches that do not exist yet.
+     */
+    public void bundleUnbundle(String filename) {
+        new Bundle(this).unbundle(resolvePath(filename));
+    }
+
+    /** FILENAME as given on the command line, relative to CWD unless it is
+     *  absolute. */
+    File resolvePath(String filename) {
+        File file = new File(filename);
+        return file.isAbsolute() ? file : join(CWD, filename);
+    }
+
     public void find(String message){
         StringBuffer sb = new StringBuffer();
         List<String> filenames = plainFilenamesIn(COMMITS_DIR);
         for (String filename : filenames) {
-            Commit commit = getCommitFromId(filename);
+            Commit commit = getCommitFromId(ObjectId.fromHex(filename));
             if(message.equals(commit.getMessage())){
                 sb.append(commit.getId()).append("\n");
             }
@@ -332,27 +502,25 @@ public class Repository {
      */
     public void checkoutFile(String filename){
         Commit head = getHead();
-        String blobId = head.getBlobs().getOrDefault(filename,"");
+        ObjectId blobId = head.getBlobs().get(filename);
         checkoutBlobByBlobId(blobId);
     }
 
-    private void checkoutBlobByBlobId(String blobId){
-        if("".equals(blobId)){
+    private void checkoutBlobByBlobId(ObjectId blobId){
+        if(blobId==null){
             System.out.println("File does not exist in that commit.");
             System.exit(0);
         }
         Blob blobToOverwrite=getBlobFromBlobId(blobId);
-        File file=join(CWD, blobToOverwrite.getFilename());
-        writeContents(file,blobToOverwrite.getContent());
+        writeBlobToWorkingFile(blobToOverwrite.getFilename(),blobToOverwrite);
     }
 
-    private Blob getBlobFromBlobId(String blobId){
-        File file=join(BLOBS_DIR,blobId);
+    Blob getBlobFromBlobId(ObjectId blobId){
+        File file=getBlobFile(blobId);
         return readObject(file,Blob.class);
     }
     private void checkoutFileFromBlob(Blob blob){
-        File file=join(BLOBS_DIR,blob.getFilename());
-        writeContents(file,blob.getContent());
+        writeBlobToWorkingFile(blob.getFilename(),blob);
     }
 
 
@@ -366,12 +534,12 @@ public class Repository {
      * @param filename
      */
     public void checkoutFileWithCommitId(String commitId,String filename){
-        Commit commit = getCommitFromId(commitId);
+        Commit commit = getCommitFromId(ObjectId.fromHex(commitId));
         if(null==commit){
             System.out.println("No commit with that id exists.");
             System.exit(0);
         }
-        String blobId = commit.getBlobs().getOrDefault(filename,"");
+        ObjectId blobId = commit.getBlobs().get(filename);
         checkoutBlobByBlobId(blobId);
     }
 
@@ -414,25 +582,29 @@ public class Repository {
      * and would be overwritten by the checkout/reset,
      * warn and exit.
      */
-    private void validateUntrackedFile(Map<String, String> blobs){
-        List<String> untrackedFiles = getUntrackedFiles();
-        if(untrackedFiles.isEmpty()){
-            return;
-        }
-        for (String filename : untrackedFiles) {
-            String blobId = new Blob(filename, CWD).getId();
-            String otherId = blobs.getOrDefault(filename, "");
-            if (!otherId.equals(blobId)) {
-                exit("There is an untracked file in the way; delete it, or add and commit it first.");
+    private void validateUntrackedFile(Map<String, ObjectId> blobs){
+        Trace.Phase phase = Trace.phase("checkout.untracked");
+        try {
+            List<String> untrackedFiles = getUntrackedFiles();
+            if(untrackedFiles.isEmpty()){
+                return;
             }
+            for (String filename : untrackedFiles) {
+                ObjectId blobId = workingBlobId(filename);
+                if (!blobId.equals(blobs.get(filename))) {
+                    exit("There is an untracked file in the way; delete it, or add and commit it first.");
+                }
+            }
+        } finally {
+            phase.end();
         }
     }
 
     private List<String> getUntrackedFiles() {
         List<String> res = new ArrayList<>();
-        List<String> stageFiles = readStage().getStagedFilename();
+        Set<String> stageFiles = new HashSet<>(readStage().getStagedFilename());
         Set<String> headFiles = getHead().getBlobs().keySet();
-        for (String filename : plainFilenamesIn(CWD)) {
+        for (String filename : workingTree().files()) {
             if (!stageFiles.contains(filename) && !headFiles.contains(filename)) {
                 res.add(filename);
             }
@@ -450,14 +622,14 @@ public class Repository {
         if(branch.exists()){
             exit("A branch with that name already exists.");
         }
-        String headCommitId = getHeadCommitId();
-        writeContents(branch,headCommitId);
+        ObjectId headCommitId = getHeadCommitId();
+        writeContents(branch,headCommitId.toString());
     }
 
-    private String getHeadCommitId() {
+    ObjectId getHeadCommitId() {
         String branchName = getHeadBranchName();
         File file = getBranchFile(branchName);
-        return readContentsAsString(file);
+        return ObjectId.fromHex(readContentsAsString(file));
     }
 
 
@@ -488,7 +660,7 @@ public class Repository {
      * @param commitId
      */
     public void reset(String commitId){
-        Commit commit = getCommitFromId(commitId);
+        Commit commit = getCommitFromId(ObjectId.fromHex(commitId));
         if(commit==null){
             exit("No commit with that id exists.");
         }
@@ -499,20 +671,28 @@ public class Repository {
 
         //moves the current branch’s head to that commit node.
         String headBranchName = getHeadBranchName();
-        writeContents(join(HEADS_DIR,headBranchName),commitId);
+        writeContents(join(HEADS_DIR,headBranchName),commit.getId().toString());
     }
 
 
     private void replaceWorkingPlaceWithCommit(Commit commit) {
-        clearWorkingSpace();
-
-        for (Map.Entry<String, String> item : commit.getBlobs().entrySet()) {
-            String filename = item.getKey();
-            String blobId = item.getValue();
-            File file = join(CWD, filename);
-            Blob blob = readObject(join(BLOBS_DIR, blobId), Blob.class);
+        Trace.Phase phase = Trace.phase("checkout.write");
+        try {
+            clearWorkingSpace();
+
+            SparseCheckout sparse = readSparseCheckout();
+            for (Map.Entry<String, ObjectId> item : commit.getBlobs().entrySet()) {
+                String filename = item.getKey();
+                if (!sparse.includes(filename)) {
+                    continue;
+                }
+                ObjectId blobId = item.getValue();
+                Blob blob = getBlobFromBlobId(blobId);
 
-            writeContents(file, blob.getContent());
+                writeBlobToWorkingFile(filename, blob);
+            }
+        } finally {
+            phase.end();
         }
     }
 
@@ -560,46 +740,391 @@ public class Repository {
     }
 
     /**
-     * Helper of merge
+     * java gitlet.Main cherry-pick [branch or commit id]
+     *
+     * Makes a new commit on the current branch with the change the given
+     * commit made to its first parent, and the same message. Only files the
+     * change touches are rewritten.
      */
-    private Commit getLatestCommitAncestor(Commit head,Commit other){
-        Set<String> headAncestors = bfsFromCommit(head);
-
-        Queue<Commit> otherQueue=new LinkedList<>();
-        otherQueue.add(other);
-        while(!otherQueue.isEmpty()){
-            Commit commit = otherQueue.poll();
-            if(headAncestors.contains(commit)){
-                return commit;
-            }
-            if(!commit.getParents().isEmpty()){
-                for (String parent : commit.getParents()) {
-                    otherQueue.add(getCommitFromId(parent));
+    public void cherryPick(String ref) {
+        if (!readStage().isEmpty()) {
+            exit("You have uncommitted changes.");
+        }
+        Replay replay = new Replay(this);
+        Commit commit = replay.engine().read(resolveCommitId(ref));
+        if (commit.getFirstParentId() == null) {
+            exit("Cannot cherry-pick the initial commit.");
+        }
+        Commit head = getHead();
+        Commit picked = replay.pick(head, commit);
+        if (picked == head) {
+            exit("No changes added to the commit.");
+        }
+        moveTo(head, picked, replay);
+    }
+
+    /**
+     * java gitlet.Main rebase [branch name]
+     *
+     * Replays the commits of the current branch that the given branch does
+     * not contain on top of it, oldest first, following first parents, and
+     * moves the current branch to the result. Commits whose change is already
+     * upstream are dropped. Nothing is written if any commit conflicts. If the
+     * current branch is behind the given one, it is fast-forwarded.
+     */
+    public void rebase(String branchName) {
+        if (!readStage().isEmpty()) {
+            exit("You have uncommitted changes.");
+        }
+        File branch = getBranchFile(branchName);
+        if (!branch.exists()) {
+            exit("A branch with that name does not exist.");
+        }
+        if (branchName.equals(getHeadBranchName())) {
+            exit("Cannot rebase a branch onto itself.");
+        }
+        Replay replay = new Replay(this);
+        Commit head = getHead();
+        Commit upstream = replay.engine().read(
+                ObjectId.fromHex(readContentsAsString(branch)));
+        if (replay.engine().ancestorsOf(head.getId())
+                .contains(upstream.getId())) {
+            exit("Current branch is up to date.");
+        }
+        List<Commit> todo = replay.commitsSince(head.getId(), upstream.getId());
+        if (todo.isEmpty()) {
+            moveTo(head, upstream, replay);
+            exit("Current branch fast-forwarded.");
+        }
+        Commit tip = upstream;
+        Trace.Phase phase = Trace.phase("replay.plan");
+        try {
+            for (Commit commit : todo) {
+                tip = replay.pick(tip, commit);
+            }
+        } finally {
+            phase.end();
+        }
+        moveTo(head, tip, replay);
+    }
+
+    /**
+     * Point the current branch at TO, whose history REPLAY made on top of
+     * the current head FROM, writing REPLAY's commits first and then only
+     * the working files that differ between FROM and TO.
+     */
+    private void moveTo(Commit from, Commit to, Replay replay) {
+        List<String> changed = getChangedFiles(from, to);
+        replay.write();
+        writeContents(getBranchFile(getHeadBranchName()), to.getId().toString());
+        writeChangedFiles(to, changed);
+    }
+
+    /**
+     * The checked-out files whose contents differ between commits FROM and
+     * TO, FROM being the head. Exits if an untracked file is among them.
+     */
+    private List<String> getChangedFiles(Commit from, Commit to) {
+        Map<String, ObjectId> before = from.getBlobs();
+        Map<String, ObjectId> after = to.getBlobs();
+        Set<String> filenames = new TreeSet<>(before.keySet());
+        filenames.addAll(after.keySet());
+        SparseCheckout sparse = readSparseCheckout();
+        List<String> changed = new ArrayList<>();
+        for (String filename : filenames) {
+            if (sparse.includes(filename)
+                    && !Objects.equals(before.get(filename), after.get(filename))) {
+                changed.add(filename);
+            }
+        }
+        Trace.Phase phase = Trace.phase("checkout.untracked");
+        try {
+            for (String filename : getUntrackedFiles()) {
+                if (Collections.binarySearch(changed, filename) >= 0) {
+                    exit("There is an untracked file in the way; delete it, or add and commit it first.");
                 }
             }
+        } finally {
+            phase.end();
         }
-        return new Commit();
+        return changed;
     }
 
     /**
-     *  Helper of merge.
+     * Bring the working files in CHANGED to their state in commit TO.
      */
-    private Set<String> bfsFromCommit(Commit head){
-        Set<String> res=new HashSet<>();
-        Queue<Commit> queue=new LinkedList<>();
-        queue.add(head);
-        while(!queue.isEmpty()){
-            Commit commit = queue.poll();
-            res.add(commit.getId());
-            if(!res.contains(commit.getId())&&!commit.getParents().isEmpty()){
-                for (String parent : commit.getParents()) {
-                    queue.add(getCommitFromId(parent));
+    private void writeChangedFiles(Commit to, List<String> changed) {
+        Trace.Phase phase = Trace.phase("checkout.write");
+        try {
+            for (String filename : changed) {
+                ObjectId blobId = to.getBlobs().get(filename);
+                if (blobId == null) {
+                    deleteWorkingFile(filename);
+                } else {
+                    writeBlobToWorkingFile(filename, getBlobFromBlobId(blobId));
+                }
+            }
+        } finally {
+            phase.end();
+        }
+    }
+
+    /**
+     * java gitlet.Main sparse-checkout set [path]...
+     * java gitlet.Main sparse-checkout disable
+     * java gitlet.Main sparse-checkout list
+     *
+     * Restricts the working directory to the tracked files at or below the
+     * given paths, checks everything out again, or prints the paths. Files
+     * outside the paths are still tracked and carried into new commits;
+     * they are only not written to the working directory.
+     */
+    public void sparseCheckout(String[] args) {
+        switch (args[1]) {
+            case "list":
+                checkCommandLength(args.length, 2);
+                StringBuilder sb = new StringBuilder();
+                for (String prefix : readSparseCheckout().prefixes()) {
+                    sb.append(prefix).append("\n");
+                }
+                System.out.print(sb);
+                break;
+            case "set":
+                if (args.length < 3) {
+                    messageIncorrectOperands();
+                }
+                applySparseCheckout(SparseCheckout.of(
+                        Arrays.asList(args).subList(2, args.length)));
+                break;
+            case "disable":
+                checkCommandLength(args.length, 2);
+                applySparseCheckout(SparseCheckout.ALL);
+                break;
+            default:
+                messageIncorrectOperands();
+        }
+    }
+
+    /**
+     * Switch the working directory to the sparse-checkout filter AFTER:
+     * head files it newly includes are written, and unmodified, unstaged
+     * files it no longer includes are deleted.
+     */
+    private void applySparseCheckout(SparseCheckout after) {
+        SparseCheckout before = readSparseCheckout();
+        Map<String, ObjectId> blobs = getHead().getBlobs();
+        Set<String> staged = new HashSet<>(readStage().getStagedFilename());
+        List<String> entering = new ArrayList<>();
+        List<String> leaving = new ArrayList<>();
+        for (String filename : blobs.keySet()) {
+            boolean was = before.includes(filename);
+            boolean is = after.includes(filename);
+            if (is && !was) {
+                entering.add(filename);
+            } else if (was && !is && !staged.contains(filename)) {
+                leaving.add(filename);
+            }
+        }
+        for (String filename : entering) {
+            File file = join(CWD, filename);
+            if (file.isFile()
+                    && !workingBlobId(filename).equals(blobs.get(filename))) {
+                exit("There is an untracked file in the way; delete it, or add and commit it first.");
+            }
+        }
+
+        after.write(SPARSE_CHECKOUT);
+        Trace.Phase phase = Trace.phase("checkout.write");
+        try {
+            for (String filename : entering) {
+                writeBlobToWorkingFile(filename,
+                        getBlobFromBlobId(blobs.get(filename)));
+            }
+            for (String filename : leaving) {
+                File file = join(CWD, filename);
+                if (file.isFile()
+                        && workingBlobId(filename).equals(blobs.get(filename))) {
+                    deleteWorkingFile(filename);
+                }
+            }
+        } finally {
+            phase.end();
+        }
+    }
+
+    /**
+     * java gitlet.Main stash [pop | list]
+     *
+     * Saves the stage and the changes to tracked files as commits, and brings
+     * the changed files back to the head commit; "pop" reapplies and drops the
+     * newest entry; "list" prints the entries, newest first.
+     */
+    public void stash(String[] args) {
+        Stash stash = new Stash(this);
+        if (args.length == 1) {
+            stash.save();
+        } else if (args.length == 2 && args[1].equals("pop")) {
+            stash.pop();
+        } else if (args.length == 2 && args[1].equals("list")) {
+            stash.list();
+        } else {
+            messageIncorrectOperands();
+        }
+    }
+
+    /**
+     * java gitlet.Main add-remote [remote name] [name of remote directory]/.gitlet
+     *
+     * Saves the given login information under the given remote name.
+     */
+    public void addRemote(String name, String directory) {
+        Map<String, String> remotes = readRemotes();
+        if (remotes.containsKey(name)) {
+            exit("A remote with that name already exists.");
+        }
+        remotes.put(name, directory.replace("/", File.separator));
+        writeRemotes(remotes);
+    }
+
+    /**
+     * java gitlet.Main rm-remote [remote name]
+     *
+     * Removes information associated with the given remote name.
+     */
+    public void rmRemote(String name) {
+        Map<String, String> remotes = readRemotes();
+        if (remotes.remove(name) == null) {
+            exit("A remote with that name does not exist.");
+        }
+        writeRemotes(remotes);
+    }
+
+    /**
+     * java gitlet.Main fetch [remote name] [remote branch name] [--depth N] [--blob-less]
+     *
+     * Copies the commits and blobs of the remote branch that this repository
+     * lacks, and points the branch [remote name]/[remote branch name] at its
+     * head. --depth N copies only the last N commits of its history;
+     * --blob-less copies no blobs, fetching each from the remote when it is
+     * first needed.
+     */
+    public void fetch(String[] args) {
+        int depth = 0;
+        boolean blobless = false;
+        for (int i = 3; i < args.length; i++) {
+            String arg = args[i];
+            String value = null;
+            if (arg.equals("--blob-less") || arg.equals("--filter=blob:none")) {
+                blobless = true;
+                continue;
+            } else if (arg.startsWith("--depth=")) {
+                value = arg.substring("--depth=".length());
+            } else if (arg.equals("--depth") && i + 1 < args.length) {
+                value = args[++i];
+            } else {
+                messageIncorrectOperands();
+            }
+            try {
+                depth = Integer.parseInt(value);
+            } catch (NumberFormatException excp) {
+                messageIncorrectOperands();
+            }
+            if (depth <= 0) {
+                messageIncorrectOperands();
+            }
+        }
+        String directory = readRemotes().get(args[1]);
+        if (directory == null) {
+            exit("A remote with that name does not exist.");
+        }
+        new Fetch(this).fetch(args[1], resolvePath(directory), args[2], depth,
+                              blobless);
+    }
+
+    /** The remotes in CONFIG: name -> .gitlet directory, one
+     *  "[name] [directory]" per line. */
+    private Map<String, String> readRemotes() {
+        Map<String, String> res = new TreeMap<>();
+        if (CONFIG.isFile()) {
+            for (String line : readContentsAsString(CONFIG).split("\n")) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    res.put(line.substring(0, space), line.substring(space + 1));
                 }
             }
         }
         return res;
     }
 
+    private void writeRemotes(Map<String, String> remotes) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : remotes.entrySet()) {
+            sb.append(e.getKey()).append(' ').append(e.getValue()).append("\n");
+        }
+        writeContents(CONFIG, sb.toString());
+    }
+
+    /**
+     * java gitlet.Main merge-tree [branch or commit id] [branch or commit id]
+     *
+     * Reports how merging the second commit into the first would go, without
+     * touching the working directory, the stage or any branch: a line with
+     * "up-to-date", "fast-forward", "clean" or "conflict", a line with the
+     * split point, then the conflicted files, one per line.
+     */
+    public void mergeTree(String ours, String theirs) {
+        MergeEngine.Result result = new MergeEngine(this)
+                .merge(resolveCommitId(ours), resolveCommitId(theirs));
+        StringBuilder sb = new StringBuilder();
+        switch (result.getKind()) {
+            case UP_TO_DATE:
+                sb.append("up-to-date\n");
+                break;
+            case FAST_FORWARD:
+                sb.append("fast-forward\n");
+                break;
+            default:
+                sb.append(result.isClean() ? "clean\n" : "conflict\n");
+        }
+        sb.append("base ").append(result.getBase()).append("\n");
+        for (String filename : result.getConflicts()) {
+            sb.append(filename).append("\n");
+        }
+        System.out.print(sb);
+    }
+
+    /**
+     * The commit id named by REF: a branch name or a full commit id.
+     */
+    ObjectId resolveCommitId(String ref) {
+        File branch = getBranchFile(ref);
+        if (branch.isFile()) {
+            return ObjectId.fromHex(readContentsAsString(branch));
+        }
+        ObjectId id = ObjectId.fromHex(ref);
+        if (id == null || !join(COMMITS_DIR, ref).isFile()) {
+            exit("No commit with that id exists.");
+        }
+        return id;
+    }
+
+    /**
+     * Helper of merge
+     */
+    private Commit getLatestCommitAncestor(Commit head,Commit other){
+        Trace.Phase phase = Trace.phase("merge.lca");
+        try {
+            MergeEngine engine = new MergeEngine(this);
+            return engine.read(engine.mergeBase(head.getId(), other.getId()));
+        } catch (GitletException excp) {
+            // e.g. histories cut apart by a shallow fetch
+            exit(excp.getMessage());
+            return null;
+        } finally {
+            phase.end();
+        }
+    }
+
     private void mergeWithLca(Commit lca,Commit head,Commit other){
         Set<String> filenames = getAllFilenames(lca, head, other);
 
@@ -607,71 +1132,90 @@ public class Repository {
         List<String> rewrite=new LinkedList<>();
         List<String> conflict=new LinkedList<>();
 
-        // If an untracked file in the current commit would be overwritten or deleted by the merge
-        List<String> untrackedFiles = getUntrackedFiles();
-        for (String untrackedFile : untrackedFiles) {
-            if(filenames.contains(untrackedFile)){
-                exit("There is an untracked file in the way; delete it, or add and commit it first.");
+        Trace.Phase phase = Trace.phase("merge.plan");
+        try {
+            // If an untracked file in the current commit would be overwritten or deleted by the merge
+            List<String> untrackedFiles = getUntrackedFiles();
+            for (String untrackedFile : untrackedFiles) {
+                if(filenames.contains(untrackedFile)){
+                    exit("There is an untracked file in the way; delete it, or add and commit it first.");
+                }
             }
-        }
 
-        for (String filename : filenames) {
-            String lId=lca.getBlobs().getOrDefault(filename,"");
-            String hId = head.getBlobs().getOrDefault(filename, "");
-            String oId = other.getBlobs().getOrDefault(filename, "");
+            for (String filename : filenames) {
+                ObjectId lId=lca.getBlobs().get(filename);
+                ObjectId hId = head.getBlobs().get(filename);
+                ObjectId oId = other.getBlobs().get(filename);
 
-            //other==lca || head==other
-            if(oId.equals(lId)||hId.equals(oId)){
-                continue;
-            }
-            if(lId.equals(hId)){
-                if(oId.equals("")) {
-                    //lca==head,other !exist --> removed & untracked
-                    remove.add(filename);
+                //other==lca || head==other
+                if(Objects.equals(oId,lId)||Objects.equals(hId,oId)){
+                    continue;
+                }
+                if(Objects.equals(lId,hId)){
+                    if(oId==null) {
+                        //lca==head,other !exist --> removed & untracked
+                        remove.add(filename);
+                    }else{
+                        //lca==head(/both absent)!=other
+                        rewrite.add(filename);
+                    }
                 }else{
-                    //lca==head(/both absent)!=other
-                    rewrite.add(filename);
+                    conflict.add(filename);
                 }
-            }else{
-                conflict.add(filename);
             }
+        } finally {
+            phase.end();
         }
 
-        if(!remove.isEmpty()){
-            for (String filename : remove) {
-                rm(filename);
+        phase = Trace.phase("merge.apply");
+        try {
+            if(!remove.isEmpty()){
+                for (String filename : remove) {
+                    rm(filename);
+                }
             }
-        }
 
-        //checkout & stage
-        if(!rewrite.isEmpty()){
-            for (String filename : rewrite) {
-                String oId=other.getBlobs().getOrDefault(filename,"");
-                Blob otherBlob = getBlobFromBlobId(oId);
-                checkoutFileFromBlob(otherBlob);
-                add(filename);
+            //checkout & stage
+            if(!rewrite.isEmpty()){
+                SparseCheckout sparse = readSparseCheckout();
+                for (String filename : rewrite) {
+                    ObjectId oId=other.getBlobs().get(filename);
+                    if (!sparse.includes(filename)) {
+                        // not checked out: stage the other version as is
+                        Stage stage = readStage();
+                        stage.addFile(filename, oId);
+                        writeStage(stage);
+                        continue;
+                    }
+                    Blob otherBlob = getBlobFromBlobId(oId);
+                    checkoutFileFromBlob(otherBlob);
+                    add(filename);
+                }
             }
-        }
 
-        if(!conflict.isEmpty()){
-            for (String filename : conflict) {
-                String hId=head.getBlobs().getOrDefault(filename,"");
-                String oId=other.getBlobs().getOrDefault(filename,"");
-                String headContent=readContentFromBlobIdAsString(hId);
-                String otherContent = readContentFromBlobIdAsString(oId);
-                String content = getConflictFile(headContent.split("\n"),
-                        otherContent.split("\n"));
-                rewriteFile(filename, content);
-                System.out.println("Encountered a merge conflict.");
+            if(!conflict.isEmpty()){
+                for (String filename : conflict) {
+                    ObjectId hId=head.getBlobs().get(filename);
+                    ObjectId oId=other.getBlobs().get(filename);
+                    String headContent=readContentFromBlobIdAsString(hId);
+                    String otherContent = readContentFromBlobIdAsString(oId);
+                    String content = getConflictFile(headContent.split("\n"),
+                            otherContent.split("\n"));
+                    rewriteFile(filename, content);
+                    System.out.println("Encountered a merge conflict.");
+                }
             }
+        } finally {
+            phase.end();
         }
     }
 
-    private String readContentFromBlobIdAsString(String blobId){
-        if(blobId.equals("")){
+    private String readContentFromBlobIdAsString(ObjectId blobId){
+        if(blobId==null){
             return "";
         }
-        return getBlobFromBlobId(blobId).getContentAsString();
+        return new String(largeFiles().read(getBlobFromBlobId(blobId)),
+                          StandardCharsets.UTF_8);
     }
 
     private String getConflictFile(String[] head,String[] other){
@@ -713,8 +1257,79 @@ public class Repository {
     }
 
     private void rewriteFile(String filename, String content) {
+        writeWorkingFile(filename, content);
+    }
+
+    /**
+     * Write the content of BLOB to the working file FILENAME. A large-file
+     * pointer is replaced by the content it points to, copied from the store.
+     */
+    void writeBlobToWorkingFile(String filename, Blob blob) {
+        ObjectId oid = LargeFiles.pointee(blob);
+        if (oid == null) {
+            writeWorkingFile(filename, blob.getContent());
+            return;
+        }
+        File source = largeFiles().content(oid);
+        File file = join(CWD, filename);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        try {
+            Files.copy(source.toPath(), file.toPath(), REPLACE_EXISTING);
+            Trace.wrote(source.length());
+        } catch (IOException excp) {
+            throw error("Cannot check out %s: %s", filename, excp.getMessage());
+        }
+    }
+
+    /**
+     * The id of the blob that would record the working file FILENAME now,
+     * a large-file pointer if it is large. The content is not stored.
+     */
+    ObjectId workingBlobId(String filename) {
+        return largeFiles().blobOf(filename, false).getId();
+    }
+
+    /** The large-file rules of this repository. */
+    LargeFiles largeFiles() {
+        if (largeFiles == null) {
+            largeFiles = new LargeFiles(this);
+        }
+        return largeFiles;
+    }
+
+    /**
+     * Write CONTENTS to the working file FILENAME, which may name a file in a
+     * subdirectory ("src/wug.txt"); missing parent directories are created.
+     */
+    void writeWorkingFile(String filename, Object... contents) {
+        File file = join(CWD, filename);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory()) {
+            parent.mkdirs();
+        }
+        writeContents(file, contents);
+    }
+
+    /**
+     * Delete the working file FILENAME and any directories left empty by
+     * its removal, up to (but not including) CWD.
+     */
+    void deleteWorkingFile(String filename) {
         File file = join(CWD, filename);
-        writeContents(file, content);
+        if (!restrictedDelete(file)) {
+            return;
+        }
+        File dir = file.getParentFile();
+        while (dir != null && !dir.equals(CWD)) {
+            String[] rest = dir.list();
+            if (rest == null || rest.length > 0 || !dir.delete()) {
+                break;
+            }
+            dir = dir.getParentFile();
+        }
     }
 
 
@@ -729,36 +1344,23 @@ public class Repository {
 
 
 
+    /**
+     * Delete every working file that is not ignored. Ignored files, and the
+     * directories holding them, are left alone.
+     */
     private void clearWorkingSpace() {
-        File[] files = CWD.listFiles(gitletFliter);
-        for (File file : files) {
-            delFile(file);
+        for (String filename : workingTree().files()) {
+            deleteWorkingFile(filename);
         }
     }
 
-    private void delFile(File file) {
-        if (file.isDirectory()) {
-            for (File f : file.listFiles()) {
-                delFile(f);
-            }
-        }
-        file.delete();
-    }
-
-    private FilenameFilter gitletFliter = new FilenameFilter() {
-        @Override
-        public boolean accept(File dir, String name) {
-            return !name.equals(".gitlet");
-        }
-    };
-
 
     /**
      * moving all staging dir's blob file to blobs dir.
      *
      * @param stage
      */
-    private void clearStage(Stage stage) {
+    void clearStage(Stage stage) {
         File[] files = STAGING_DIR.listFiles();
         if (files == null) {
             return;
@@ -777,7 +1379,7 @@ public class Repository {
     }
 
 
-    private Commit getHead(){
+    Commit getHead(){
         String branchName = getHeadBranchName();
         File branchFile = getBranchFile(branchName);
         Commit head = getCommitFromBranchFile(branchFile);
@@ -792,16 +1394,20 @@ public class Repository {
 
 
 
-    private String getHeadBranchName(){
+    String getHeadBranchName(){
         return readContentsAsString(HEAD);
     }
 
     private File getBranchFile(String branchName){
+        if (branchName.contains("/")) {
+            // [remote name]/[remote branch name], written by fetch
+            return join(REMOTES_DIR, branchName);
+        }
         return join(HEADS_DIR,branchName);
     }
 
     private Commit getCommitFromBranchFile(File branchFile){
-        String id = readContentsAsString(branchFile);
+        ObjectId id = ObjectId.fromHex(readContentsAsString(branchFile));
         return getCommitFromId(id);
     }
 
@@ -810,25 +1416,101 @@ public class Repository {
         return getCommitFromBranchFile(file);
     }
 
-    private Commit getCommitFromId(String CommitId){
-        File file = join(COMMITS_DIR, CommitId);
-        if("null".equals(CommitId)||!file.exists()){
+    Commit getCommitFromId(ObjectId commitId){
+        if(commitId==null){
+            return null;
+        }
+        File file = join(COMMITS_DIR, commitId.toString());
+        if(!file.exists()){
             return null;
         }
-        return readObject(file,Commit.class);
+        Commit commit = readObject(file,Commit.class);
+        if (!commit.getParents().isEmpty() && getShallowCommits().contains(commitId)) {
+            return commit.graft();
+        }
+        return commit;
+    }
+
+    /** The commits at the boundary of a shallow history. */
+    Set<ObjectId> getShallowCommits() {
+        if (shallow == null) {
+            shallow = new HashSet<>(readIdList(SHALLOW));
+        }
+        return shallow;
+    }
+
+    /** Replace the boundary of the shallow history by COMMITS. */
+    void writeShallowCommits(Set<ObjectId> commits) {
+        shallow = commits;
+        if (commits.isEmpty()) {
+            SHALLOW.delete();
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ObjectId id : new TreeSet<>(commits)) {
+            sb.append(id).append("\n");
+        }
+        writeContents(SHALLOW, sb.toString());
+    }
+
+    /** The ids listed one per line in FILE; empty if there is no FILE. */
+    static List<ObjectId> readIdList(File file) {
+        List<ObjectId> res = new ArrayList<>();
+        if (file.isFile()) {
+            for (String line : readContentsAsString(file).split("\n")) {
+                ObjectId id = ObjectId.fromHex(line.trim());
+                if (id != null) {
+                    res.add(id);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * The file holding blob BLOBID. A blob this repository lacks is copied
+     * in first from a remote a blob-less fetch came from, if one has it.
+     */
+    File getBlobFile(ObjectId blobId) {
+        File file = join(BLOBS_DIR, blobId.toString());
+        if (file.exists() || !PROMISOR.isFile()) {
+            return file;
+        }
+        for (String line : readContentsAsString(PROMISOR).split("\n")) {
+            File remote = join(new File(line.trim()), "blobs", blobId.toString());
+            if (!line.isBlank() && remote.isFile()) {
+                try {
+                    Files.copy(remote.toPath(), file.toPath(), REPLACE_EXISTING);
+                    Trace.wrote(remote.length());
+                } catch (IOException excp) {
+                    throw error("Cannot fetch blob %s: %s", blobId, excp.getMessage());
+                }
+                break;
+            }
+        }
+        return file;
+    }
+
+    SparseCheckout readSparseCheckout() {
+        return SparseCheckout.read(SPARSE_CHECKOUT);
+    }
+
+    /** The checked-out part of the working directory. */
+    private WorkingTree workingTree() {
+        return new WorkingTree(CWD, readSparseCheckout());
     }
 
-    private Stage readStage(){
+    Stage readStage(){
         return readObject(STAGE,Stage.class);
     }
 
-    private void writeStage(Stage stage){
+    void writeStage(Stage stage){
         writeObject(STAGE,stage);
     }
 
 
     private void writeCommitToFile(Commit commit){
-         File file=join(COMMITS_DIR,commit.getId());
+         File file=join(COMMITS_DIR,commit.getId().toString());
          writeObject(file,commit);
     }
 
@@ -0,0 +1,126 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static gitlet.Utils.*;
+
+/** The sparse-checkout filter: which tracked paths are materialized in the
+ *  working directory.
+ *
+ *  The filter is a list of path prefixes in .gitlet/sparse-checkout, one
+ *  per line. A path is included if it equals a prefix or lies below it:
+ *  "src" and "src/" both include "src/wug.txt" but not "srcs/wug.txt".
+ *  Without the file every path is included.
+ *
+ *  Excluded paths stay in commits and on the stage exactly as they were;
+ *  they are just never written to, deleted from or scanned in the working
+ *  directory by checkout, reset, merge or the untracked-file checks, so
+ *  those cost time in proportion to the included part of the tree.
+ *
+ *  @author tuysss
+ */
+class SparseCheckout {
+
+    /** The filter that includes everything. */
+    static final SparseCheckout ALL = new SparseCheckout(null);
+
+    /** Included prefixes without trailing '/', or null for everything. */
+    private final List<String> prefixes;
+
+    private SparseCheckout(List<String> prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    /** Returns the filter stored in FILE, or ALL if there is none. */
+    static SparseCheckout read(File file) {
+        if (!file.isFile()) {
+            return ALL;
+        }
+        List<String> res = new ArrayList<>();
+        for (String line : readContentsAsString(file).split("\n")) {
+            String prefix = normalize(line);
+            if (!prefix.isEmpty()) {
+                res.add(prefix);
+            }
+        }
+        return new SparseCheckout(res);
+    }
+
+    /** Returns the filter including the paths below PATTERNS. */
+    static SparseCheckout of(List<String> patterns) {
+        List<String> res = new ArrayList<>();
+        for (String pattern : patterns) {
+            String prefix = normalize(pattern);
+            if (!prefix.isEmpty() && !res.contains(prefix)) {
+                res.add(prefix);
+            }
+        }
+        Collections.sort(res);
+        return new SparseCheckout(res);
+    }
+
+    /** Store this filter in FILE, or remove FILE if this is ALL. */
+    void write(File file) {
+        if (prefixes == null) {
+            file.delete();
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String prefix : prefixes) {
+            sb.append(prefix).append('\n');
+        }
+        writeContents(file, sb.toString());
+    }
+
+    /** The included prefixes; empty for ALL. */
+    List<String> prefixes() {
+        return prefixes == null ? Collections.emptyList()
+                                : Collections.unmodifiableList(prefixes);
+    }
+
+    /** Returns true iff the file at relative path PATH is included. */
+    boolean includes(String path) {
+        if (prefixes == null) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix) && (path.length() == prefix.length()
+                    || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns true iff the directory at relative path DIR may hold an
+     *  included file, so a walk of the working tree must enter it. */
+    boolean mayContain(String dir) {
+        if (includes(dir)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (prefix.startsWith(dir) && prefix.charAt(dir.length()) == '/') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** PATTERN with surrounding blanks and leading or trailing '/'s
+     *  removed. */
+    private static String normalize(String pattern) {
+        String res = pattern.trim();
+        int start = 0;
+        int end = res.length();
+        while (start < end && res.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && res.charAt(end - 1) == '/') {
+            end--;
+        }
+        return res.substring(start, end);
+    }
+}
@@ -8,12 +8,15 @@ import java.util.*;
 /**
  *  The stagingArea presentation.
  */
-public class Stage implements Serializable {
+public class Stage implements Serializable, Dumpable {
+    /** Fixed, so that edits to this class keep .gitlet readable. */
+    private static final long serialVersionUID = 5762189144574091016L;
+
     /**
      *  added & removed here is referred to the current vision of Commit.
      */
     /** filename-blob's id */
-    private Map<String,String> added;
+    private Map<String,ObjectId> added;
     /** filename */
     private Set<String> removed;
 
@@ -22,7 +25,7 @@ public class Stage implements Serializable {
         removed=new HashSet<>();
     }
 
-    public void addFile(String filename,String blobId){
+    public void addFile(String filename,ObjectId blobId){
         added.put(filename,blobId);
         removed.remove(filename);
     }
@@ -36,7 +39,7 @@ public class Stage implements Serializable {
         return added.isEmpty()&&removed.isEmpty();
     }
 
-    public Map<String, String> getAdded() {
+    public Map<String, ObjectId> getAdded() {
         return added;
     }
 
@@ -44,6 +47,12 @@ public class Stage implements Serializable {
         return removed;
     }
 
+    @Override
+    public void dump() {
+        System.out.printf("added: %s%nremoved: %s%n", new TreeMap<>(added),
+                new TreeSet<>(removed));
+    }
+
     public List<String> getStagedFilename(){
         List<String> res=new ArrayList<>();
         res.addAll(added.keySet());
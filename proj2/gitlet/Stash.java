@@ -0,0 +1,222 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static gitlet.Utils.*;
+
+/** `gitlet stash`: shelves the stage and the changes to tracked files.
+ *
+ *  An entry is two ordinary commits on top of the head H:
+ *
+ *      I  "index on ..."  parent H; H's snapshot with the stage applied
+ *      W  "WIP on ..."    parents H and I; I's snapshot with the working
+ *                         copies of the tracked files
+ *
+ *  Both snapshots share every blob id with H except where something
+ *  changed, so stashing writes one blob per modified file and nothing for
+ *  the rest. Saving and popping only touch the files that differ between
+ *  H and W; untracked files are left alone. The entries are kept in
+ *  .gitlet/refs/stash, newest first, one W id per line.
+ *
+ *  @author tuysss
+ */
+class Stash {
+
+    private final Repository repo;
+
+    Stash(Repository repo) {
+        this.repo = repo;
+    }
+
+    /** Shelve the stage and working changes, and bring the changed files
+     *  back to the head commit. */
+    void save() {
+        Commit head = repo.getHead();
+        Stage stage = repo.readStage();
+        Map<String, ObjectId> base = head.getBlobs();
+
+        Map<String, ObjectId> index = new HashMap<>(base);
+        index.putAll(stage.getAdded());
+        index.keySet().removeAll(stage.getRemoved());
+
+        Map<String, ObjectId> work = new HashMap<>(index);
+        List<Blob> blobs = new ArrayList<>();
+        SparseCheckout sparse = repo.readSparseCheckout();
+        Set<String> tracked = new TreeSet<>(index.keySet());
+        tracked.addAll(base.keySet());
+        Trace.Phase phase = Trace.phase("stash.scan");
+        try {
+            for (String filename : tracked) {
+                if (!sparse.includes(filename)) {
+                    continue;
+                }
+                if (!join(repo.CWD, filename).isFile()) {
+                    work.remove(filename);
+                    continue;
+                }
+                Blob blob = repo.largeFiles().blobOf(filename, true);
+                if (!blob.getId().equals(index.get(filename))) {
+                    work.put(filename, blob.getId());
+                    blobs.add(blob);
+                }
+            }
+        } finally {
+            phase.end();
+        }
+        if (stage.isEmpty() && work.equals(base)) {
+            repo.exit("No local changes to save.");
+        }
+
+        for (Blob blob : blobs) {
+            File file = join(repo.BLOBS_DIR, blob.getId().toString());
+            if (!file.exists()) {
+                writeObject(file, blob);
+            }
+        }
+        String label = repo.getHeadBranchName() + ": "
+            + head.getId().abbreviate(7) + " " + head.getMessage();
+        Commit i = new Commit("index on " + label, List.of(head.getId()),
+                              index);
+        Commit w = new Commit("WIP on " + label,
+                              List.of(head.getId(), i.getId()), work);
+        writeObject(join(repo.COMMITS_DIR, i.getId().toString()), i);
+        writeObject(join(repo.COMMITS_DIR, w.getId().toString()), w);
+        List<ObjectId> entries = read();
+        entries.add(0, w.getId());
+        write(entries);
+
+        repo.clearStage(stage);
+        restore(changed(work, base, sparse), base);
+    }
+
+    /** Apply the newest entry to the working directory and the stage, and
+     *  drop it. Nothing changes if it conflicts with the head or with
+     *  working changes. */
+    void pop() {
+        List<ObjectId> entries = read();
+        if (entries.isEmpty()) {
+            repo.exit("No stash entries found.");
+        }
+        Stage stage = repo.readStage();
+        if (!stage.isEmpty()) {
+            repo.exit("You have uncommitted changes.");
+        }
+        MergeEngine engine = new MergeEngine(repo);
+        Commit w = engine.read(entries.get(0));
+        Map<String, ObjectId> base =
+            engine.read(w.getFirstParentId()).getBlobs();
+        Map<String, ObjectId> index =
+            engine.read(w.getParents().get(1)).getBlobs();
+        Map<String, ObjectId> head = repo.getHead().getBlobs();
+
+        SortedSet<String> conflicts = new TreeSet<>();
+        Map<String, ObjectId> merged =
+            MergeEngine.mergeTrees(base, head, w.getBlobs(), conflicts);
+        if (!conflicts.isEmpty()) {
+            repo.exit("Cannot pop stash: conflicts in "
+                      + String.join(", ", conflicts) + ".");
+        }
+        List<String> changed =
+            changed(merged, head, repo.readSparseCheckout());
+        for (String filename : changed) {
+            ObjectId current = join(repo.CWD, filename).isFile()
+                ? repo.workingBlobId(filename) : null;
+            if (!Objects.equals(current, head.get(filename))) {
+                repo.exit("Your local changes to " + filename
+                          + " would be overwritten by stash pop.");
+            }
+        }
+
+        restore(changed, merged);
+        Set<String> filenames = new TreeSet<>(base.keySet());
+        filenames.addAll(index.keySet());
+        for (String filename : filenames) {
+            ObjectId id = index.get(filename);
+            if (Objects.equals(id, base.get(filename))
+                    || Objects.equals(id, head.get(filename))) {
+                continue;
+            }
+            if (id == null) {
+                stage.removeFile(filename);
+            } else {
+                stage.addFile(filename, id);
+            }
+        }
+        repo.writeStage(stage);
+        entries.remove(0);
+        write(entries);
+    }
+
+    /** Print the entries, newest first. */
+    void list() {
+        StringBuilder sb = new StringBuilder();
+        List<ObjectId> entries = read();
+        for (int k = 0; k < entries.size(); k++) {
+            Commit w = repo.getCommitFromId(entries.get(k));
+            sb.append("stash@{").append(k).append("}: ")
+                .append(w.getMessage()).append('\n');
+        }
+        System.out.print(sb);
+    }
+
+    /** The checked-out files whose blob ids differ between snapshots A and
+     *  B, in order. */
+    private static List<String> changed(Map<String, ObjectId> a,
+                                        Map<String, ObjectId> b,
+                                        SparseCheckout sparse) {
+        Set<String> filenames = new TreeSet<>(a.keySet());
+        filenames.addAll(b.keySet());
+        List<String> res = new ArrayList<>();
+        for (String filename : filenames) {
+            if (sparse.includes(filename)
+                    && !Objects.equals(a.get(filename), b.get(filename))) {
+                res.add(filename);
+            }
+        }
+        return res;
+    }
+
+    /** Bring the working files in FILENAMES to their state in SNAPSHOT. */
+    private void restore(List<String> filenames,
+                         Map<String, ObjectId> snapshot) {
+        Trace.Phase phase = Trace.phase("checkout.write");
+        try {
+            for (String filename : filenames) {
+                ObjectId id = snapshot.get(filename);
+                if (id == null) {
+                    repo.deleteWorkingFile(filename);
+                } else {
+                    repo.writeBlobToWorkingFile(filename,
+                        repo.getBlobFromBlobId(id));
+                }
+            }
+        } finally {
+            phase.end();
+        }
+    }
+
+    /** The entries, newest first. */
+    List<ObjectId> read() {
+        return Repository.readIdList(repo.STASH);
+    }
+
+    private void write(List<ObjectId> entries) {
+        if (entries.isEmpty()) {
+            repo.STASH.delete();
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (ObjectId id : entries) {
+            sb.append(id).append('\n');
+        }
+        writeContents(repo.STASH, sb.toString());
+    }
+}
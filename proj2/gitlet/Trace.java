@@ -0,0 +1,227 @@
+package gitlet;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import static gitlet.Utils.*;
+
+/** Lightweight operation tracing, switched on by the GITLET_TRACE
+ *  environment variable:
+ *
+ *      GITLET_TRACE=1 (or "stderr")   JSON summary on stderr at exit
+ *      GITLET_TRACE=[file]             JSON summary appended to FILE,
+ *                                      one line per run
+ *
+ *  The summary holds the command, its wall time, the bytes and files read
+ *  and written through Utils, objects deserialized and serialized by
+ *  class, and the count and total time of every phase opened with
+ *  phase(). While tracing, each phase is also committed as a
+ *  "gitlet.Phase" JFR event, so a run started with
+ *  -XX:StartFlightRecording shows the phases on the recording's
+ *  timeline.
+ *
+ *  With the variable unset every hook is a test of a static final
+ *  boolean.
+ *
+ *  @author tuysss
+ */
+class Trace {
+
+    /** Where the summary goes: null when tracing is off. */
+    private static final String TARGET = System.getenv("GITLET_TRACE");
+
+    /** True iff tracing is on. */
+    static final boolean ENABLED = TARGET != null && !TARGET.isEmpty()
+            && !TARGET.equals("0");
+
+    private static final long START = System.nanoTime();
+    private static volatile String command = "";
+
+    private static final LongAdder BYTES_READ = new LongAdder();
+    private static final LongAdder BYTES_WRITTEN = new LongAdder();
+    private static final LongAdder FILES_READ = new LongAdder();
+    private static final LongAdder FILES_WRITTEN = new LongAdder();
+    private static final Map<String, LongAdder> DECODED =
+        new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> ENCODED =
+        new ConcurrentHashMap<>();
+    private static final Map<String, PhaseTotal> PHASES =
+        new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Trace::report));
+        }
+    }
+
+    /** Record the name of the command being run. */
+    static void command(String name) {
+        command = name;
+    }
+
+    /** Count N bytes read from one file. */
+    static void read(long n) {
+        if (ENABLED) {
+            BYTES_READ.add(n);
+            FILES_READ.increment();
+        }
+    }
+
+    /** Count N bytes written to one file. */
+    static void wrote(long n) {
+        if (ENABLED) {
+            BYTES_WRITTEN.add(n);
+            FILES_WRITTEN.increment();
+        }
+    }
+
+    /** Count one deserialized object OBJ. */
+    static void decoded(Object obj) {
+        if (ENABLED && obj != null) {
+            count(DECODED, obj.getClass().getSimpleName());
+        }
+    }
+
+    /** Count one serialized object OBJ. */
+    static void encoded(Object obj) {
+        if (ENABLED && obj != null) {
+            count(ENCODED, obj.getClass().getSimpleName());
+        }
+    }
+
+    /** Start timing the phase NAME; call end() on the result to end it.
+     *  Phases with the same name are summed. Meant for try-finally:
+     *
+     *      Trace.Phase phase = Trace.phase("merge.lca");
+     *      try {
+     *          ...
+     *      } finally {
+     *          phase.end();
+     *      }
+     */
+    static Phase phase(String name) {
+        return ENABLED ? new Phase(name) : Phase.NONE;
+    }
+
+    /** A running phase. */
+    static class Phase {
+        private static final Phase NONE = new Phase(null);
+
+        private final String name;
+        private final long start;
+        private final PhaseEvent event;
+
+        private Phase(String name) {
+            this.name = name;
+            if (name == null) {
+                this.start = 0;
+                this.event = null;
+            } else {
+                this.event = new PhaseEvent();
+                this.event.phase = name;
+                this.event.command = command;
+                this.event.begin();
+                this.start = System.nanoTime();
+            }
+        }
+
+        /** End this phase. */
+        void end() {
+            if (name == null) {
+                return;
+            }
+            long nanos = System.nanoTime() - start;
+            event.commit();
+            PHASES.computeIfAbsent(name, k -> new PhaseTotal()).add(nanos);
+        }
+    }
+
+    /** The JFR view of a phase. */
+    @Name("gitlet.Phase")
+    @Label("Gitlet Phase")
+    @Category("Gitlet")
+    static class PhaseEvent extends Event {
+        @Label("Command")
+        String command;
+        @Label("Phase")
+        String phase;
+    }
+
+    private static class PhaseTotal {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        void add(long n) {
+            count.increment();
+            nanos.add(n);
+        }
+    }
+
+    private static void count(Map<String, LongAdder> counts, String key) {
+        counts.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    /** Returns the summary as one line of JSON. */
+    static String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"command\":").append(jsonQuote(command));
+        sb.append(",\"wallNanos\":").append(System.nanoTime() - START);
+        sb.append(",\"bytesRead\":").append(BYTES_READ.sum());
+        sb.append(",\"bytesWritten\":").append(BYTES_WRITTEN.sum());
+        sb.append(",\"filesRead\":").append(FILES_READ.sum());
+        sb.append(",\"filesWritten\":").append(FILES_WRITTEN.sum());
+        sb.append(",\"objectsDecoded\":");
+        appendCounts(sb, DECODED);
+        sb.append(",\"objectsEncoded\":");
+        appendCounts(sb, ENCODED);
+        sb.append(",\"phases\":{");
+        String sep = "";
+        for (Map.Entry<String, PhaseTotal> e
+                 : new TreeMap<>(PHASES).entrySet()) {
+            sb.append(sep).append(jsonQuote(e.getKey())).append(":{");
+            sb.append("\"count\":").append(e.getValue().count.sum());
+            sb.append(",\"nanos\":").append(e.getValue().nanos.sum());
+            sb.append('}');
+            sep = ",";
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static void appendCounts(StringBuilder sb,
+                                     Map<String, LongAdder> counts) {
+        sb.append('{');
+        String sep = "";
+        for (Map.Entry<String, LongAdder> e
+                 : new TreeMap<>(counts).entrySet()) {
+            sb.append(sep).append(jsonQuote(e.getKey())).append(':')
+                .append(e.getValue().sum());
+            sep = ",";
+        }
+        sb.append('}');
+    }
+
+    private static void report() {
+        String json = summary();
+        if (TARGET.equals("1") || TARGET.equals("stderr")) {
+            System.err.println(json);
+            return;
+        }
+        try (PrintStream out = new PrintStream(
+                 new FileOutputStream(TARGET, true), false, "UTF-8")) {
+            out.println(json);
+        } catch (IOException excp) {
+            System.err.println(json);
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package gitlet;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
@@ -15,7 +17,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.Formatter;
 import java.util.List;
 
 
@@ -33,28 +34,48 @@ class Utils {
 
     /* SHA-1 HASH VALUES. */
 
-    /** Returns the SHA-1 hash of the concatenation of VALS, which may
-     *  be any mixture of byte arrays and Strings. */
-    static String sha1(Object... vals) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            for (Object val : vals) {
-                if (val instanceof byte[]) {
-                    md.update((byte[]) val);
-                } else if (val instanceof String) {
-                    md.update(((String) val).getBytes(StandardCharsets.UTF_8));
-                } else {
-                    throw new IllegalArgumentException("improper type to sha1");
-                }
+    /** One SHA-1 digest per thread. MessageDigest.getInstance walks the
+     *  security providers on every call, and digest() resets the instance,
+     *  so a digest can be reused as soon as it has produced a value. */
+    private static final ThreadLocal<MessageDigest> SHA1 =
+        ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException excp) {
+                throw new IllegalArgumentException("System does not support SHA-1");
             }
-            Formatter result = new Formatter();
-            for (byte b : md.digest()) {
-                result.format("%02x", b);
+        });
+
+    /** Returns this thread's SHA-1 digest, reset, for hashing data that
+     *  comes in pieces. */
+    static MessageDigest sha1Digest() {
+        MessageDigest md = SHA1.get();
+        md.reset();
+        return md;
+    }
+
+    /** Returns the SHA-1 hash of the concatenation of VALS, which may
+     *  be any mixture of byte arrays and Strings, as an ObjectId. */
+    static ObjectId sha1Id(Object... vals) {
+        MessageDigest md = SHA1.get();
+        md.reset();
+        for (Object val : vals) {
+            if (val instanceof byte[]) {
+                md.update((byte[]) val);
+            } else if (val instanceof String) {
+                md.update(((String) val).getBytes(StandardCharsets.UTF_8));
+            } else {
+                md.reset();
+                throw new IllegalArgumentException("improper type to sha1");
             }
-            return result.toString();
-        } catch (NoSuchAlgorithmException excp) {
-            throw new IllegalArgumentException("System does not support SHA-1");
         }
+        return ObjectId.fromRaw(md.digest());
+    }
+
+    /** Returns the SHA-1 hash of the concatenation of VALS, which may
+     *  be any mixture of byte arrays and Strings. */
+    static String sha1(Object... vals) {
+        return sha1Id(vals).toString();
     }
 
     /** Returns the SHA-1 hash of the concatenation of the strings in
@@ -68,9 +89,14 @@ class Utils {
     /** Deletes FILE if it exists and is not a directory.  Returns true
      *  if FILE was deleted, and false otherwise.  Refuses to delete FILE
      *  and throws IllegalArgumentException unless the directory designated by
-     *  FILE also contains a directory named .gitlet. */
+     *  FILE, or one of its ancestors, also contains a directory named
+     *  .gitlet. */
     static boolean restrictedDelete(File file) {
-        if (!(new File(file.getParentFile(), ".gitlet")).isDirectory()) {
+        File dir = file.getAbsoluteFile().getParentFile();
+        while (dir != null && !(new File(dir, ".gitlet")).isDirectory()) {
+            dir = dir.getParentFile();
+        }
+        if (dir == null) {
             throw new IllegalArgumentException("not .gitlet working directory");
         }
         if (!file.isDirectory()) {
@@ -99,7 +125,9 @@ class Utils {
             throw new IllegalArgumentException("must be a normal file");
         }
         try {
-            return Files.readAllBytes(file.toPath());
+            byte[] contents = Files.readAllBytes(file.toPath());
+            Trace.read(contents.length);
+            return contents;
         } catch (IOException excp) {
             throw new IllegalArgumentException(excp.getMessage());
         }
@@ -126,19 +154,32 @@ class Utils {
             }
             BufferedOutputStream str =
                 new BufferedOutputStream(Files.newOutputStream(file.toPath()));
+            long n = 0;
             for (Object obj : contents) {
+                byte[] bytes;
                 if (obj instanceof byte[]) {
-                    str.write((byte[]) obj);
+                    bytes = (byte[]) obj;
                 } else {
-                    str.write(((String) obj).getBytes(StandardCharsets.UTF_8));
+                    bytes = ((String) obj).getBytes(StandardCharsets.UTF_8);
                 }
+                str.write(bytes);
+                n += bytes.length;
             }
             str.close();
+            Trace.wrote(n);
         } catch (IOException | ClassCastException excp) {
             throw new IllegalArgumentException(excp.getMessage());
         }
     }
 
+    /** Why an object written by another version of gitlet cannot be read:
+     *  ids were 40-char Strings in commits, blobs and the stage until they
+     *  became ObjectIds, and Java serialization cannot convert one to the
+     *  other. */
+    private static final String INCOMPATIBLE_OBJECT =
+        "Object was written by an incompatible version of gitlet; "
+        + "re-create the repository with this version.";
+
     /** Return an object of type T read from FILE, casting it to EXPECTEDCLASS.
      *  Throws IllegalArgumentException in case of problems. */
     static <T extends Serializable> T readObject(File file,
@@ -148,7 +189,13 @@ class Utils {
                 new ObjectInputStream(new FileInputStream(file));
             T result = expectedClass.cast(in.readObject());
             in.close();
+            if (Trace.ENABLED) {
+                Trace.read(file.length());
+                Trace.decoded(result);
+            }
             return result;
+        } catch (InvalidClassException excp) {
+            throw new IllegalArgumentException(INCOMPATIBLE_OBJECT);
         } catch (IOException | ClassCastException
                  | ClassNotFoundException excp) {
             throw new IllegalArgumentException(excp.getMessage());
@@ -217,16 +264,53 @@ class Utils {
             ObjectOutputStream objectStream = new ObjectOutputStream(stream);
             objectStream.writeObject(obj);
             objectStream.close();
+            Trace.encoded(obj);
             return stream.toByteArray();
         } catch (IOException excp) {
             throw error("Internal error serializing commit.");
         }
     }
 
+    /** Return the object of type T serialized in BYTES, casting it to
+     *  EXPECTEDCLASS. Throws IllegalArgumentException in case of problems. */
+    static <T extends Serializable> T deserialize(byte[] bytes,
+                                                  Class<T> expectedClass) {
+        try {
+            ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(bytes));
+            T result = expectedClass.cast(in.readObject());
+            in.close();
+            Trace.decoded(result);
+            return result;
+        } catch (InvalidClassException excp) {
+            throw new IllegalArgumentException(INCOMPATIBLE_OBJECT);
+        } catch (IOException | ClassCastException
+                 | ClassNotFoundException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+    }
+
 
 
     /* MESSAGES AND ERROR REPORTING */
 
+    /** Returns S as a JSON string literal. */
+    static String jsonQuote(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+
     /** Return a GitletException whose message is composed from MSG and ARGS as
      *  for the String.format method. */
     static GitletException error(String msg, Object... args) {
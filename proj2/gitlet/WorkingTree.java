@@ -0,0 +1,220 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/** The working tree of a repository: every plain file below the
+ *  repository root, named by its path relative to the root with '/'
+ *  separators (e.g. "src/wug.txt"), minus whatever .gitletignore
+ *  excludes.
+ *
+ *  Each directory is listed with Files.walkFileTree limited to depth 1,
+ *  which hands us the entry attributes without a second stat per file.
+ *  Subdirectories that survive the ignore rules are forked as separate
+ *  tasks, so large trees are scanned in parallel and ignored subtrees are
+ *  never opened.
+ *
+ *  @author tuysss
+ */
+class WorkingTree {
+
+    /** Name of the ignore file, read from the repository root. */
+    static final String IGNORE_FILE = ".gitletignore";
+
+    /** Directories with fewer entries than this are walked inline
+     *  rather than forked, since a task costs more than a tiny listing. */
+    private static final int FORK_THRESHOLD = 8;
+
+    /** The repository root. */
+    private final Path root;
+    /** Ignore patterns, one matcher per .gitletignore line. */
+    private final List<Rule> rules;
+    /** The part of the tree to look at. */
+    private final SparseCheckout sparse;
+
+    WorkingTree(File root) {
+        this(root, SparseCheckout.ALL);
+    }
+
+    /** The working tree below ROOT, restricted to the paths SPARSE
+     *  includes; directories that cannot hold such a path are not
+     *  entered. */
+    WorkingTree(File root, SparseCheckout sparse) {
+        this.root = root.toPath().toAbsolutePath().normalize();
+        this.rules = readRules(this.root);
+        this.sparse = sparse;
+    }
+
+    /** Returns the relative names of all plain files in the working tree
+     *  that are not ignored and are included by the sparse-checkout
+     *  filter, in lexicographic order. */
+    List<String> files() {
+        Trace.Phase phase = Trace.phase("worktree.scan");
+        try {
+            List<String> res =
+                ForkJoinPool.commonPool().invoke(new Walk(root, ""));
+            Collections.sort(res);
+            return res;
+        } finally {
+            phase.end();
+        }
+    }
+
+    /** Returns true iff the relative path NAME is excluded by the ignore
+     *  rules. DIRECTORY tells whether NAME denotes a directory. */
+    boolean isIgnored(String name, boolean directory) {
+        if (name.equals(".gitlet") || name.startsWith(".gitlet/")) {
+            return true;
+        }
+        Path rel = root.getFileSystem().getPath(name);
+        Path base = rel.getFileName();
+        boolean ignored = false;
+        for (Rule rule : rules) {
+            if (rule.directoryOnly && !directory) {
+                continue;
+            }
+            if (rule.matcher.matches(rule.anchored ? rel : base)) {
+                ignored = !rule.negated;
+            }
+        }
+        return ignored;
+    }
+
+    /** One directory of the walk; forks a subtask per kept subdirectory. */
+    private class Walk extends RecursiveTask<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        /** Relative name of DIR, "" for the root. */
+        private final String prefix;
+
+        Walk(Path dir, String prefix) {
+            this.dir = dir;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected List<String> compute() {
+            List<String> files = new ArrayList<>();
+            List<String> subdirs = new ArrayList<>();
+            FileVisitor<Path> visitor = new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file,
+                                                 BasicFileAttributes attrs) {
+                    String name = prefix + file.getFileName();
+                    if (attrs.isDirectory()) {
+                        if (sparse.mayContain(name)
+                                && !isIgnored(name, true)) {
+                            subdirs.add(name);
+                        }
+                    } else if (attrs.isRegularFile()
+                            && sparse.includes(name)
+                            && !isIgnored(name, false)) {
+                        files.add(name);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file,
+                                                       IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            };
+            try {
+                Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class),
+                        1, visitor);
+            } catch (IOException excp) {
+                throw new IllegalArgumentException(excp.getMessage());
+            }
+
+            if (subdirs.size() + files.size() < FORK_THRESHOLD) {
+                for (String sub : subdirs) {
+                    files.addAll(new Walk(root.resolve(sub), sub + "/")
+                            .compute());
+                }
+                return files;
+            }
+            List<Walk> tasks = new ArrayList<>();
+            for (String sub : subdirs) {
+                Walk task = new Walk(root.resolve(sub), sub + "/");
+                task.fork();
+                tasks.add(task);
+            }
+            for (Walk task : tasks) {
+                files.addAll(task.join());
+            }
+            return files;
+        }
+    }
+
+    /* IGNORE RULES */
+
+    /** A single .gitletignore line. Lines containing a '/' (other than a
+     *  trailing one) are matched against the whole relative path, all
+     *  others against the last name component, as in git. A leading '!'
+     *  re-includes what an earlier line excluded. */
+    private static class Rule {
+        PathMatcher matcher;
+        boolean anchored;
+        boolean directoryOnly;
+        boolean negated;
+    }
+
+    private static List<Rule> readRules(Path root) {
+        List<Rule> res = new ArrayList<>();
+        Path ignore = root.resolve(IGNORE_FILE);
+        if (!Files.isRegularFile(ignore)) {
+            return res;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(ignore, StandardCharsets.UTF_8);
+        } catch (IOException excp) {
+            throw new IllegalArgumentException(excp.getMessage());
+        }
+        FileSystem fs = root.getFileSystem();
+        for (String line : lines) {
+            String pattern = line.trim();
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                continue;
+            }
+            Rule rule = new Rule();
+            if (pattern.startsWith("!")) {
+                rule.negated = true;
+                pattern = pattern.substring(1);
+            }
+            if (pattern.endsWith("/")) {
+                rule.directoryOnly = true;
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            if (pattern.startsWith("/")) {
+                rule.anchored = true;
+                pattern = pattern.substring(1);
+            }
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            rule.anchored |= pattern.contains("/");
+            rule.matcher = fs.getPathMatcher("glob:" + pattern);
+            res.add(rule);
+        }
+        return res;
+    }
+}